@@ -0,0 +1,257 @@
+package sk.upjs.kombinatorika;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import sk.upjs.paz.Graph;
+
+/**
+ * Computes distances between all pairs of vertices and writes them to a file.
+ * Two methods are available: Floyd's algorithm working over the whole distance
+ * matrix in memory, and Johnson's algorithm, which runs Dijkstra's algorithm
+ * from every vertex after the edge weights are made non-negative by one run of
+ * the Bellman-Ford algorithm. Johnson's algorithm computes the rows of the
+ * matrix in parallel in blocks and writes every block as soon as it is
+ * finished, so the whole matrix is never kept in memory.
+ *
+ * The output file has the labels of the vertices on the first line and one
+ * row of the distance matrix on each following line, values separated by a
+ * comma. Unreachable vertices have distance Infinity.
+ *
+ * @author student
+ */
+public class AllPairsShortestPaths {
+
+    public enum Method {
+
+        FLOYD, JOHNSON
+    }
+
+    /** Part of the maximum heap which the distance matrix of Floyd's
+     * algorithm may take */
+    private static final int MATRIX_MEMORY_FRACTION = 2;
+    /** How many times an inner step of Floyd's algorithm is cheaper than a
+     * relaxation in Dijkstra's algorithm with a binary heap */
+    private static final double FLOYD_SPEEDUP = 4;
+    /** Rows computed per thread of the pool before a block is written */
+    private static final int ROWS_PER_THREAD = 4;
+    /** Part of the maximum heap which a block of rows may take */
+    private static final int BLOCK_MEMORY_FRACTION = 8;
+
+    private final IndexedGraph graph;
+    private final GraphInfo info;
+
+    public AllPairsShortestPaths(Graph graph) {
+        this.graph = new IndexedGraph(graph);
+        this.info = new GraphInfo(graph);
+    }
+
+    /**
+     * Chooses the method which is expected to be faster for the graph. Floyd's
+     * algorithm takes O(n^3) time regardless of the number of edges, Johnson's
+     * algorithm takes O(n m log n) time, plus O(n m) for the reweighting if
+     * some weight is negative. Floyd's algorithm is never chosen for graphs
+     * whose distance matrix would take more than half of the maximum heap.
+     *
+     * @return the method to use
+     */
+    public Method chooseMethod() {
+        if (!matrixFits(info.vertexCount(), Runtime.getRuntime().maxMemory())) {
+            return Method.JOHNSON;
+        }
+        double n = info.vertexCount();
+        // number of edge directions Dijkstra's algorithm has to relax, the
+        // same for directed and undirected graphs of the same density
+        double arcs = info.density() * n * (n - 1);
+
+        double floydCost = n * n * n / FLOYD_SPEEDUP;
+        double johnsonCost = n * (arcs + n) * Math.log(n + 1) / Math.log(2);
+        if (info.hasNegativeWeights()) {
+            johnsonCost += n * arcs;
+        }
+        return floydCost <= johnsonCost ? Method.FLOYD : Method.JOHNSON;
+    }
+
+    /**
+     * Tests if the distance matrix of a graph fits in the part of the heap
+     * reserved for it.
+     *
+     * @param n number of vertices
+     * @param maxMemory maximum size of the heap in bytes
+     * @return true if Floyd's algorithm may be used
+     */
+    static boolean matrixFits(int n, long maxMemory) {
+        // every row is an array of n doubles with its header and reference;
+        // the size of all rows is compared by division, as it may overflow
+        long rowBytes = 8L * n + 24;
+        return n == 0 || rowBytes <= maxMemory / MATRIX_MEMORY_FRACTION / n;
+    }
+
+    /**
+     * Computes the distances with the given method and writes them to the
+     * file.
+     *
+     * @param filename path to the output file
+     * @param method the method to use
+     * @return true if the distances were written; false if the graph contains
+     * a cycle of negative weight and the distances are not defined
+     * @throws IOException if the file cannot be written
+     */
+    public boolean writeDistances(String filename, Method method)
+            throws IOException {
+        if (method == Method.FLOYD) {
+            return floyd(filename);
+        } else {
+            return johnson(filename);
+        }
+    }
+
+    private boolean floyd(String filename) throws IOException {
+        int n = graph.vertexCount();
+        double[][] distance = new double[n][n];
+        for (int u = 0; u < n; u++) {
+            Arrays.fill(distance[u], Double.POSITIVE_INFINITY);
+            distance[u][u] = 0;
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                int v = graph.target(arc);
+                distance[u][v] = Math.min(distance[u][v], graph.weight(arc));
+            }
+        }
+
+        for (int k = 0; k < n; k++) {
+            double[] rowK = distance[k];
+            for (int i = 0; i < n; i++) {
+                double[] rowI = distance[i];
+                double ik = rowI[k];
+                if (ik == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int j = 0; j < n; j++) {
+                    if (ik + rowK[j] < rowI[j]) {
+                        rowI[j] = ik + rowK[j];
+                    }
+                }
+            }
+        }
+
+        for (int u = 0; u < n; u++) {
+            if (distance[u][u] < 0) {
+                return false;
+            }
+        }
+
+        try (Writer writer = new BufferedWriter(new FileWriter(filename))) {
+            writeHeader(writer);
+            for (int u = 0; u < n; u++) {
+                writeRow(writer, distance[u]);
+            }
+        }
+        return true;
+    }
+
+    private boolean johnson(String filename) throws IOException {
+        final double[] potential;
+        if (info.hasNegativeWeights()) {
+            potential = ShortestPaths.potentials(graph);
+            if (potential == null) {
+                return false;
+            }
+        } else {
+            potential = null;
+        }
+
+        int n = graph.vertexCount();
+        ForkJoinPool pool = new ForkJoinPool();
+        int blockRows = blockRows(pool.getParallelism(), n);
+        try (Writer writer = new BufferedWriter(new FileWriter(filename))) {
+            writeHeader(writer);
+            double[][] rows = new double[Math.min(blockRows, n)][];
+            for (int from = 0; from < n; from += blockRows) {
+                int to = Math.min(n, from + blockRows);
+                pool.invoke(new DijkstraTask(from, to, from, rows, potential));
+                for (int u = from; u < to; u++) {
+                    writeRow(writer, rows[u - from]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of rows of a block: a few rows for every thread, so
+     * that the threads stay busy, but no more than fit into a fraction of the
+     * maximum heap.
+     *
+     * @param parallelism number of threads computing the rows
+     * @param n number of vertices, i.e. the length of a row
+     * @return number of rows computed before they are written
+     */
+    private static int blockRows(int parallelism, int n) {
+        long rowBytes = 8L * Math.max(n, 1);
+        long memoryRows = Runtime.getRuntime().maxMemory()
+                / BLOCK_MEMORY_FRACTION / rowBytes;
+        return (int) Math.max(1, Math.min(ROWS_PER_THREAD * parallelism,
+                memoryRows));
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a range of source vertices. The range is
+     * split in halves until it contains a single vertex, so that idle threads
+     * of the pool can steal the remaining work.
+     */
+    private class DijkstraTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int blockStart;
+        private final double[][] rows;
+        private final double[] potential;
+
+        DijkstraTask(int from, int to, int blockStart, double[][] rows,
+                double[] potential) {
+            this.from = from;
+            this.to = to;
+            this.blockStart = blockStart;
+            this.rows = rows;
+            this.potential = potential;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                rows[from - blockStart] = ShortestPaths.dijkstra(graph, from,
+                        potential, null);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new DijkstraTask(from, middle, blockStart, rows, potential),
+                    new DijkstraTask(middle, to, blockStart, rows, potential));
+        }
+    }
+
+    private void writeHeader(Writer writer) throws IOException {
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            if (v > 0) {
+                writer.write(',');
+            }
+            writer.write(graph.label(v));
+        }
+        writer.write('\n');
+    }
+
+    private void writeRow(Writer writer, double[] row) throws IOException {
+        for (int v = 0; v < row.length; v++) {
+            if (v > 0) {
+                writer.write(',');
+            }
+            writer.write(Double.toString(row[v]));
+        }
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,216 @@
+package sk.upjs.kombinatorika;
+
+import java.util.Arrays;
+
+/**
+ * Quadtree over vertex positions used to approximate repulsive forces of the
+ * force-directed layout. A distant group of vertices is replaced by a single
+ * body placed in its centre of mass, so one force evaluation costs O(log n)
+ * instead of O(n).
+ *
+ * The tree is stored in flat arrays and is rebuilt in every layout iteration.
+ * After {@link #build} it is only read, so {@link #repulsion} may be called
+ * from several threads at once.
+ *
+ * @author student
+ */
+class BarnesHutTree {
+
+    /** Value of body[] for an internal node */
+    private static final int INTERNAL = -2;
+    /** Value of body[] for an empty leaf */
+    private static final int EMPTY = -1;
+    /** Depth at which coincident vertices are merged into one leaf */
+    private static final int MAX_DEPTH = 40;
+
+    private int[] children = new int[0];
+    private int[] body = new int[0];
+    private double[] mass = new double[0];
+    private double[] massX = new double[0];
+    private double[] massY = new double[0];
+    private double[] centerX = new double[0];
+    private double[] centerY = new double[0];
+    private double[] halfSize = new double[0];
+    private int size;
+
+    /**
+     * Builds the tree from positions of n vertices.
+     *
+     * @param x x coordinates of vertices
+     * @param y y coordinates of vertices
+     * @param n number of vertices
+     */
+    void build(double[] x, double[] y, int n) {
+        size = 0;
+        if (n == 0) {
+            return;
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double half = Math.max(maxX - minX, maxY - minY) / 2 + 1e-6;
+        ensureCapacity(2 * n + 1);
+        newNode((minX + maxX) / 2, (minY + maxY) / 2, half);
+
+        for (int i = 0; i < n; i++) {
+            insert(i, x[i], y[i]);
+        }
+    }
+
+    /**
+     * Adds the approximate repulsion of all vertices acting on vertex i to
+     * out[0] and out[1]. The repulsion between two bodies is
+     * k2 * mass / distance, as in the Fruchterman-Reingold layout.
+     *
+     * @param i index of the vertex
+     * @param x x coordinate of the vertex
+     * @param y y coordinate of the vertex
+     * @param theta accuracy parameter; 0 means exact computation
+     * @param k2 square of the ideal edge length
+     * @param stack work array of length at least {@link #stackSize()}
+     * @param out array where the force is accumulated
+     */
+    void repulsion(int i, double x, double y, double theta, double k2,
+            int[] stack, double[] out) {
+        if (size == 0) {
+            return;
+        }
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            double m = mass[node];
+            if (body[node] == i) {
+                // the vertex itself, possibly merged with coincident vertices
+                m -= 1;
+            }
+            if (m <= 0) {
+                continue;
+            }
+            double dx = x - massX[node];
+            double dy = y - massY[node];
+            double dist2 = dx * dx + dy * dy;
+            if (body[node] != INTERNAL
+                    || 4 * halfSize[node] * halfSize[node] < theta * theta * dist2) {
+                if (dist2 < 1e-12) {
+                    // coincident vertices are pushed apart in a direction given
+                    // by their indices, so that the layout stays deterministic
+                    double angle = i * 2.399963;
+                    dx = Math.cos(angle) * 1e-3;
+                    dy = Math.sin(angle) * 1e-3;
+                    dist2 = 1e-6;
+                }
+                double f = k2 * m / dist2;
+                out[0] += dx * f;
+                out[1] += dy * f;
+            } else {
+                for (int q = 0; q < 4; q++) {
+                    int child = children[4 * node + q];
+                    if (child >= 0) {
+                        stack[top++] = child;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the work array needed by {@link #repulsion}.
+     *
+     * @return stack size for the traversal of the tree
+     */
+    int stackSize() {
+        return 4 * (MAX_DEPTH + 2);
+    }
+
+    private void insert(int i, double x, double y) {
+        int node = 0;
+        int depth = 0;
+        while (true) {
+            if (body[node] == EMPTY) {
+                body[node] = i;
+                mass[node] = 1;
+                massX[node] = x;
+                massY[node] = y;
+                return;
+            }
+            if (body[node] != INTERNAL) {
+                if (depth >= MAX_DEPTH) {
+                    // coincident vertices: keep them together in one leaf
+                    addMass(node, x, y);
+                    return;
+                }
+                // split the leaf and move its vertex one level down
+                int old = body[node];
+                body[node] = INTERNAL;
+                int child = childFor(node, massX[node], massY[node]);
+                body[child] = old;
+                mass[child] = mass[node];
+                massX[child] = massX[node];
+                massY[child] = massY[node];
+            }
+            addMass(node, x, y);
+            node = childFor(node, x, y);
+            depth++;
+        }
+    }
+
+    private void addMass(int node, double x, double y) {
+        double m = mass[node];
+        massX[node] = (massX[node] * m + x) / (m + 1);
+        massY[node] = (massY[node] * m + y) / (m + 1);
+        mass[node] = m + 1;
+    }
+
+    /**
+     * Returns the child of the node in whose quadrant the point lies. The child
+     * is created if it does not exist yet.
+     */
+    private int childFor(int node, double x, double y) {
+        int quadrant = (x >= centerX[node] ? 1 : 0) + (y >= centerY[node] ? 2 : 0);
+        int child = children[4 * node + quadrant];
+        if (child < 0) {
+            double h = halfSize[node] / 2;
+            double cx = centerX[node] + ((quadrant & 1) != 0 ? h : -h);
+            double cy = centerY[node] + ((quadrant & 2) != 0 ? h : -h);
+            child = newNode(cx, cy, h);
+            children[4 * node + quadrant] = child;
+        }
+        return child;
+    }
+
+    private int newNode(double cx, double cy, double half) {
+        if (size == body.length) {
+            ensureCapacity(2 * size);
+        }
+        int node = size++;
+        Arrays.fill(children, 4 * node, 4 * node + 4, -1);
+        body[node] = EMPTY;
+        mass[node] = 0;
+        massX[node] = 0;
+        massY[node] = 0;
+        centerX[node] = cx;
+        centerY[node] = cy;
+        halfSize[node] = half;
+        return node;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (body.length >= capacity) {
+            return;
+        }
+        children = Arrays.copyOf(children, 4 * capacity);
+        body = Arrays.copyOf(body, capacity);
+        mass = Arrays.copyOf(mass, capacity);
+        massX = Arrays.copyOf(massX, capacity);
+        massY = Arrays.copyOf(massY, capacity);
+        centerX = Arrays.copyOf(centerX, capacity);
+        centerY = Arrays.copyOf(centerY, capacity);
+        halfSize = Arrays.copyOf(halfSize, capacity);
+    }
+}
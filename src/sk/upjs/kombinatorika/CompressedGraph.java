@@ -0,0 +1,708 @@
+package sk.upjs.kombinatorika;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import sk.upjs.paz.Edge;
+import sk.upjs.paz.Graph;
+import sk.upjs.paz.Vertex;
+
+/**
+ * Compact read-only representation of a graph for large graphs. Vertices are
+ * numbered 0..n-1 and the sorted list of neighbours of every vertex is stored
+ * as a sequence of variable-length integers: the first neighbour as its
+ * distance from the vertex, every other one as the gap from the previous
+ * neighbour. Neighbours of a vertex are usually close to each other, so most
+ * edges take one or two bytes.
+ *
+ * Weights are kept in a separate stream. If the graph has at most 65536
+ * distinct weights, every edge stores only an index into the table of
+ * distinct weights (one or two bytes, nothing at all if all weights are
+ * equal); otherwise weights are stored as floats when no precision is lost,
+ * and as doubles only if necessary. Labels "1".."n" of a graph built by
+ * {@link Builder#Builder(int, boolean)} are not stored at all.
+ *
+ * An undirected edge is stored in the lists of both its vertices. A directed
+ * graph keeps also the lists of incoming neighbours.
+ *
+ * Neighbours are read sequentially by a {@link Cursor}.
+ *
+ * @author student
+ */
+public class CompressedGraph {
+
+    /** Largest length of an array which virtual machines usually allocate */
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final int n;
+    private final boolean directed;
+    /** Labels of vertices, null if the label of vertex v is v+1 */
+    private final String[] labels;
+    private final Adjacency out;
+    /** Incoming neighbours of a directed graph, null if undirected */
+    private final Adjacency in;
+    private final double minWeight;
+    private final double maxWeight;
+    private final int loops;
+
+    /**
+     * Lists of neighbours of all vertices with weights of the edges.
+     */
+    private static class Adjacency {
+
+        /** Neighbours of v are encoded in data[byteOffsets[v]..] */
+        final int[] byteOffsets;
+        /** Edges of v have numbers arcOffsets[v]..arcOffsets[v+1]-1 */
+        final int[] arcOffsets;
+        final byte[] data;
+        /** Table of distinct weights, null if weights are stored directly */
+        final double[] dictionary;
+        final byte[] byteCodes;
+        final char[] charCodes;
+        final float[] floatWeights;
+        final double[] doubleWeights;
+
+        Adjacency(int[] byteOffsets, int[] arcOffsets, byte[] data,
+                double[] dictionary, byte[] byteCodes, char[] charCodes,
+                float[] floatWeights, double[] doubleWeights) {
+            this.byteOffsets = byteOffsets;
+            this.arcOffsets = arcOffsets;
+            this.data = data;
+            this.dictionary = dictionary;
+            this.byteCodes = byteCodes;
+            this.charCodes = charCodes;
+            this.floatWeights = floatWeights;
+            this.doubleWeights = doubleWeights;
+        }
+
+        double weight(int arc) {
+            if (byteCodes != null) {
+                return dictionary[byteCodes[arc] & 0xff];
+            }
+            if (charCodes != null) {
+                return dictionary[charCodes[arc]];
+            }
+            if (floatWeights != null) {
+                return floatWeights[arc];
+            }
+            if (doubleWeights != null) {
+                return doubleWeights[arc];
+            }
+            return dictionary[0];
+        }
+
+        long sizeInBytes() {
+            long size = 4L * byteOffsets.length + 4L * arcOffsets.length + data.length;
+            if (dictionary != null) {
+                size += 8L * dictionary.length;
+            }
+            if (byteCodes != null) {
+                size += byteCodes.length;
+            }
+            if (charCodes != null) {
+                size += 2L * charCodes.length;
+            }
+            if (floatWeights != null) {
+                size += 4L * floatWeights.length;
+            }
+            if (doubleWeights != null) {
+                size += 8L * doubleWeights.length;
+            }
+            return size;
+        }
+    }
+
+    private CompressedGraph(int n, boolean directed, String[] labels,
+            Adjacency out, Adjacency in, double minWeight, double maxWeight) {
+        this.n = n;
+        this.directed = directed;
+        this.labels = labels;
+        this.out = out;
+        this.in = in;
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+
+        int selfLoops = 0;
+        Cursor cursor = cursor();
+        for (int v = 0; v < n; v++) {
+            cursor.moveToOut(v);
+            while (cursor.hasNext()) {
+                if (cursor.next() == v) {
+                    selfLoops++;
+                }
+            }
+        }
+        this.loops = selfLoops;
+    }
+
+    /**
+     * Creates the compressed copy of the graph.
+     *
+     * @param graph the graph to copy
+     * @return compressed graph with the same vertices, edges and weights
+     */
+    public static CompressedGraph fromGraph(Graph graph) {
+        String[] labels = new String[graph.getVertices().size()];
+        Map<Vertex, Integer> indices = IndexedGraph.numberVertices(graph, labels);
+        Builder builder = new Builder(labels, graph.isDirected());
+        for (Edge edge : graph.getEdges()) {
+            builder.addEdge(indices.get(edge.getSource()),
+                    indices.get(edge.getTarget()), edge.getWeight());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Collects edges of a graph and builds its compressed representation.
+     * Edges may be added in any order; repeated edges between the same
+     * vertices are stored once, with the weight given last, as
+     * {@link Graph#loadFromFile(String)} does.
+     */
+    public static class Builder {
+
+        private int n;
+        private String[] labels;
+        private final boolean directed;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        /** Weights of edges, NaN for an edge added without a weight */
+        private double[] weights = new double[16];
+        private int size;
+
+        /**
+         * Creates a builder of a graph with n vertices labelled "1".."n".
+         *
+         * @param n number of vertices
+         * @param directed true if the graph is directed
+         */
+        public Builder(int n, boolean directed) {
+            this.n = n;
+            this.labels = null;
+            this.directed = directed;
+        }
+
+        /**
+         * Creates a builder of a graph whose vertex v has label labels[v].
+         *
+         * @param labels labels of vertices
+         * @param directed true if the graph is directed
+         */
+        public Builder(String[] labels, boolean directed) {
+            this.n = labels.length;
+            this.labels = labels;
+            this.directed = directed;
+        }
+
+        /**
+         * Creates a builder of a graph without vertices; they are added by
+         * {@link #addVertex} while edges are being read.
+         *
+         * @param directed true if the graph is directed
+         */
+        public Builder(boolean directed) {
+            this.labels = new String[16];
+            this.directed = directed;
+        }
+
+        /**
+         * Adds a vertex. It may not be used if the builder was created for
+         * vertices labelled "1".."n".
+         *
+         * @param label label of the vertex
+         * @return number of the vertex
+         */
+        public int addVertex(String label) {
+            if (labels == null) {
+                throw new IllegalStateException(
+                        "Vertices are labelled by their numbers");
+            }
+            if (n == labels.length) {
+                labels = Arrays.copyOf(labels, grow(n, n + 1L));
+            }
+            labels[n] = label;
+            return n++;
+        }
+
+        /**
+         * Adds an edge. In an undirected graph the order of the vertices does
+         * not matter.
+         *
+         * @param source number of the source vertex
+         * @param target number of the target vertex
+         * @param weight weight of the edge
+         */
+        public void addEdge(int source, int target, double weight) {
+            if (source < 0 || source >= n || target < 0 || target >= n) {
+                throw new IllegalArgumentException("Vertex out of range: "
+                        + source + ", " + target);
+            }
+            add(source, target, weight);
+            if (!directed && source != target) {
+                add(target, source, weight);
+            }
+        }
+
+        /**
+         * Adds an edge without a weight. If the same edge was added before,
+         * it keeps its weight, otherwise its weight is 1.
+         *
+         * @param source number of the source vertex
+         * @param target number of the target vertex
+         */
+        public void addEdge(int source, int target) {
+            addEdge(source, target, Double.NaN);
+        }
+
+        private void add(int source, int target, double weight) {
+            if (size == sources.length) {
+                int length = grow(size, size + 1);
+                sources = Arrays.copyOf(sources, length);
+                targets = Arrays.copyOf(targets, length);
+                weights = Arrays.copyOf(weights, length);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            weights[size] = weight;
+            size++;
+        }
+
+        /**
+         * Builds the compressed graph. The builder should not be used
+         * afterwards.
+         *
+         * @return the compressed graph
+         */
+        public CompressedGraph build() {
+            removeDuplicates();
+            // table of distinct weights, abandoned if it grows too large
+            Map<Double, Integer> codes = new HashMap<>();
+            double minWeight = Double.POSITIVE_INFINITY;
+            double maxWeight = Double.NEGATIVE_INFINITY;
+            for (int a = 0; a < size; a++) {
+                minWeight = Math.min(minWeight, weights[a]);
+                maxWeight = Math.max(maxWeight, weights[a]);
+                if (codes != null && !codes.containsKey(weights[a])) {
+                    if (codes.size() == 65536) {
+                        codes = null;
+                    } else {
+                        codes.put(weights[a], codes.size());
+                    }
+                }
+            }
+            double[] dictionary = null;
+            if (codes != null) {
+                dictionary = new double[Math.max(1, codes.size())];
+                dictionary[0] = 1;
+                for (Map.Entry<Double, Integer> entry : codes.entrySet()) {
+                    dictionary[entry.getValue()] = entry.getKey();
+                }
+            }
+            // code of an edge: index into the dictionary, or the number of the
+            // edge in the builder if weights are stored directly
+            int[] code = new int[size];
+            for (int a = 0; a < size; a++) {
+                code[a] = codes != null ? codes.get(weights[a]) : a;
+            }
+
+            Adjacency out = encode(sources, targets, code, dictionary);
+            Adjacency in = directed ? encode(targets, sources, code, dictionary) : null;
+            if (size == 0) {
+                minWeight = maxWeight = 1;
+            }
+            return new CompressedGraph(n, directed,
+                    labels != null && labels.length != n ? Arrays.copyOf(labels, n)
+                    : labels, out, in, minWeight, maxWeight);
+        }
+
+        /**
+         * Keeps only the last of the edges with the same source and target,
+         * with the last weight given to any of them.
+         */
+        private void removeDuplicates() {
+            // counting sort of edges by their source; every edge is kept as
+            // (target << 32 | a), so that sorting the edges of a vertex brings
+            // copies of an edge together in the order in which they were added
+            int[] start = new int[n + 1];
+            for (int a = 0; a < size; a++) {
+                start[sources[a] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                start[v + 1] += start[v];
+            }
+            long[] keys = new long[size];
+            int[] next = Arrays.copyOf(start, n);
+            for (int a = 0; a < size; a++) {
+                keys[next[sources[a]]++] = ((long) targets[a] << 32) | a;
+            }
+
+            for (int v = 0; v < n; v++) {
+                Arrays.sort(keys, start[v], start[v + 1]);
+                int k = start[v];
+                while (k < start[v + 1]) {
+                    long target = keys[k] >>> 32;
+                    double weight = 1;
+                    int last = -1;
+                    for (; k < start[v + 1] && keys[k] >>> 32 == target; k++) {
+                        if (last != -1) {
+                            sources[last] = -1;
+                        }
+                        last = (int) keys[k];
+                        if (!Double.isNaN(weights[last])) {
+                            weight = weights[last];
+                        }
+                    }
+                    weights[last] = weight;
+                }
+            }
+
+            int kept = 0;
+            for (int a = 0; a < size; a++) {
+                if (sources[a] != -1) {
+                    sources[kept] = sources[a];
+                    targets[kept] = targets[a];
+                    weights[kept] = weights[a];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        /**
+         * Encodes lists of neighbours: edge a leads from from[a] to to[a].
+         * There are no repeated edges.
+         */
+        private Adjacency encode(int[] from, int[] to, int[] code,
+                double[] dictionary) {
+            // counting sort of edges by their start vertex; every edge is kept
+            // as (target << 32 | code), so that sorting a list of a vertex
+            // orders it by neighbours
+            int[] start = new int[n + 1];
+            for (int a = 0; a < size; a++) {
+                start[from[a] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                start[v + 1] += start[v];
+            }
+            long[] keys = new long[size];
+            int[] next = Arrays.copyOf(start, n);
+            for (int a = 0; a < size; a++) {
+                keys[next[from[a]]++] = ((long) to[a] << 32) | (code[a] & 0xffffffffL);
+            }
+
+            int[] byteOffsets = new int[n + 1];
+            int[] arcOffsets = new int[n + 1];
+            byte[] data = new byte[Math.max(16, size)];
+            int[] arcCodes = new int[size];
+            int position = 0;
+            int arcs = 0;
+            for (int v = 0; v < n; v++) {
+                byteOffsets[v] = position;
+                arcOffsets[v] = arcs;
+                Arrays.sort(keys, start[v], start[v + 1]);
+                int previous = -1;
+                for (int k = start[v]; k < start[v + 1]; k++) {
+                    int target = (int) (keys[k] >>> 32);
+                    int value = previous == -1 ? zigzag(target - v)
+                            : target - previous - 1;
+                    if (position + 5 > data.length) {
+                        data = Arrays.copyOf(data, grow(data.length, position + 5));
+                    }
+                    position = writeVarint(data, position, value);
+                    arcCodes[arcs++] = (int) keys[k];
+                    previous = target;
+                }
+            }
+            byteOffsets[n] = position;
+            arcOffsets[n] = arcs;
+            data = Arrays.copyOf(data, position);
+
+            byte[] byteCodes = null;
+            char[] charCodes = null;
+            float[] floatWeights = null;
+            double[] doubleWeights = null;
+            if (dictionary != null) {
+                if (dictionary.length > 256) {
+                    charCodes = new char[arcs];
+                    for (int a = 0; a < arcs; a++) {
+                        charCodes[a] = (char) arcCodes[a];
+                    }
+                } else if (dictionary.length > 1) {
+                    byteCodes = new byte[arcs];
+                    for (int a = 0; a < arcs; a++) {
+                        byteCodes[a] = (byte) arcCodes[a];
+                    }
+                }
+            } else {
+                boolean exactFloats = true;
+                for (int a = 0; a < size && exactFloats; a++) {
+                    exactFloats = (float) weights[a] == weights[a];
+                }
+                if (exactFloats) {
+                    floatWeights = new float[arcs];
+                    for (int a = 0; a < arcs; a++) {
+                        floatWeights[a] = (float) weights[arcCodes[a]];
+                    }
+                } else {
+                    doubleWeights = new double[arcs];
+                    for (int a = 0; a < arcs; a++) {
+                        doubleWeights[a] = weights[arcCodes[a]];
+                    }
+                }
+            }
+            return new Adjacency(byteOffsets, arcOffsets, data, dictionary,
+                    byteCodes, charCodes, floatWeights, doubleWeights);
+        }
+    }
+
+    /**
+     * Reads neighbours of one vertex after another. A cursor is not thread
+     * safe, but every thread may use its own cursor over the same graph.
+     */
+    public static class Cursor {
+
+        private final CompressedGraph graph;
+        private Adjacency adjacency;
+        private int vertex;
+        private int position;
+        private int arc;
+        private int endArc;
+        private int last;
+
+        private Cursor(CompressedGraph graph) {
+            this.graph = graph;
+        }
+
+        /**
+         * Moves the cursor to the beginning of the list of neighbours into
+         * which an edge leads from the vertex (all neighbours in an undirected
+         * graph).
+         *
+         * @param v the vertex
+         */
+        public void moveToOut(int v) {
+            moveTo(graph.out, v);
+        }
+
+        /**
+         * Moves the cursor to the beginning of the list of neighbours from
+         * which an edge leads into the vertex (all neighbours in an undirected
+         * graph).
+         *
+         * @param v the vertex
+         */
+        public void moveToIn(int v) {
+            moveTo(graph.in != null ? graph.in : graph.out, v);
+        }
+
+        private void moveTo(Adjacency adjacency, int v) {
+            this.adjacency = adjacency;
+            vertex = v;
+            position = adjacency.byteOffsets[v];
+            arc = adjacency.arcOffsets[v];
+            endArc = adjacency.arcOffsets[v + 1];
+        }
+
+        /**
+         * Tests if there are more neighbours in the list.
+         *
+         * @return true if {@link #next} may be called
+         */
+        public boolean hasNext() {
+            return arc < endArc;
+        }
+
+        /**
+         * Returns the next neighbour. Neighbours are returned in increasing
+         * order.
+         *
+         * @return number of the neighbour
+         */
+        public int next() {
+            byte[] data = adjacency.data;
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            if (arc == adjacency.arcOffsets[vertex]) {
+                last = vertex + unzigzag(value);
+            } else {
+                last = last + value + 1;
+            }
+            arc++;
+            return last;
+        }
+
+        /**
+         * Returns the weight of the edge to the neighbour returned by the last
+         * call of {@link #next}.
+         *
+         * @return weight of the edge
+         */
+        public double weight() {
+            return adjacency.weight(arc - 1);
+        }
+    }
+
+    /**
+     * Returns a new cursor over this graph.
+     *
+     * @return cursor for reading lists of neighbours
+     */
+    public Cursor cursor() {
+        return new Cursor(this);
+    }
+
+    public int vertexCount() {
+        return n;
+    }
+
+    /**
+     * Returns the number of loops, i.e. edges from a vertex to itself.
+     *
+     * @return number of loops
+     */
+    public int loopCount() {
+        return loops;
+    }
+
+    /**
+     * Returns the number of edges. An undirected edge is counted once.
+     *
+     * @return number of edges
+     */
+    public int edgeCount() {
+        int arcs = out.arcOffsets[n];
+        return directed ? arcs : (arcs + loops) / 2;
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * Returns the label of the vertex.
+     *
+     * @param v number of the vertex
+     * @return label of the vertex
+     */
+    public String label(int v) {
+        return labels != null ? labels[v] : Integer.toString(v + 1);
+    }
+
+    /**
+     * Returns the number of neighbours into which an edge leads from the
+     * vertex.
+     */
+    public int outDegree(int v) {
+        return out.arcOffsets[v + 1] - out.arcOffsets[v];
+    }
+
+    /**
+     * Returns the number of neighbours from which an edge leads into the
+     * vertex.
+     */
+    public int inDegree(int v) {
+        Adjacency adjacency = in != null ? in : out;
+        return adjacency.arcOffsets[v + 1] - adjacency.arcOffsets[v];
+    }
+
+    public double minWeight() {
+        return minWeight;
+    }
+
+    public double maxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Tests if every edge has its counterpart in the opposite direction with
+     * the same weight.
+     *
+     * @return true if the graph is undirected or its edges are symmetric
+     */
+    public boolean isSymmetric() {
+        if (!directed) {
+            return true;
+        }
+        Cursor outgoing = cursor();
+        Cursor incoming = cursor();
+        for (int v = 0; v < n; v++) {
+            if (outDegree(v) != inDegree(v)) {
+                return false;
+            }
+            outgoing.moveToOut(v);
+            incoming.moveToIn(v);
+            while (outgoing.hasNext()) {
+                if (outgoing.next() != incoming.next()
+                        || outgoing.weight() != incoming.weight()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the undirected graph with the same edges. It may only be called
+     * if {@link #isSymmetric} holds; the lists of neighbours are shared.
+     *
+     * @return the undirected graph
+     */
+    public CompressedGraph asUndirected() {
+        if (!directed) {
+            return this;
+        }
+        return new CompressedGraph(n, false, labels, out, null, minWeight,
+                maxWeight);
+    }
+
+    /**
+     * Returns the memory taken by the lists of neighbours and the weights,
+     * not counting labels.
+     *
+     * @return approximate size in bytes
+     */
+    public long sizeInBytes() {
+        return out.sizeInBytes() + (in != null ? in.sizeInBytes() : 0);
+    }
+
+    /**
+     * Returns the new length of a full array: twice the current one, but not
+     * more than the largest array the virtual machine can allocate.
+     *
+     * @param length current length of the array
+     * @param required length the array must have at least
+     * @return the new length
+     * @throws IllegalStateException if the required length cannot be
+     * allocated
+     */
+    private static int grow(int length, long required) {
+        if (required > MAX_ARRAY_LENGTH) {
+            throw new IllegalStateException(
+                    "Graph is too large for the compressed representation");
+        }
+        return (int) Math.max(required, Math.min(MAX_ARRAY_LENGTH, 2L * length));
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarint(byte[] data, int position, int value) {
+        while ((value & ~0x7f) != 0) {
+            data[position++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+}
@@ -0,0 +1,146 @@
+package sk.upjs.kombinatorika;
+
+/**
+ * Spatial index of edges drawn as straight segments. Edges are divided into
+ * classes by their length: class k has a uniform grid whose cells are 2^k
+ * times larger than the cells of class 0, and holds the edges which are not
+ * longer (in x nor in y) than its cell. An edge is bucketed by the cell of its
+ * midpoint, so it never reaches further than half a cell from that cell. The
+ * edges crossing a rectangle are thus found by visiting, in every class, only
+ * the cells overlapping the rectangle enlarged by half a cell. The grid is
+ * immutable once built.
+ *
+ * @author student
+ */
+class EdgeGrid {
+
+    /** Largest number of cells along a side of the grid of class 0 */
+    private static final int MAX_RESOLUTION = 1024;
+
+    private final double minX;
+    private final double minY;
+    /** Number of cells along a side of the grid of each class */
+    private final int[] resolution;
+    private final double[] cellSize;
+    /** Index of the first cell of each class in cellStart */
+    private final int[] firstCell;
+    /** cellStart[c]..cellStart[c+1]-1 are positions of cell c in items */
+    private final int[] cellStart;
+    private final int[] items;
+
+    /**
+     * Builds the index so that a cell of class 0 holds a few edges on average.
+     *
+     * @param x x coordinates of vertices
+     * @param y y coordinates of vertices
+     * @param source sources of edges
+     * @param target targets of edges
+     * @param minX minimum of x coordinates
+     * @param minY minimum of y coordinates
+     * @param span size of the bounding square of all vertices
+     */
+    EdgeGrid(float[] x, float[] y, int[] source, int[] target, double minX,
+            double minY, double span) {
+        this.minX = minX;
+        this.minY = minY;
+        int m = source.length;
+        int finest = Math.max(1, Math.min(MAX_RESOLUTION,
+                (int) Math.sqrt(m / 4.0)));
+        int classes = 1;
+        while ((finest >> classes) > 0) {
+            classes++;
+        }
+        resolution = new int[classes];
+        cellSize = new double[classes];
+        firstCell = new int[classes + 1];
+        for (int k = 0; k < classes; k++) {
+            resolution[k] = finest >> k;
+            // the coarsest class covers the whole layout by a single cell
+            cellSize[k] = k == classes - 1 ? span * (1 + 1e-6) + 1e-9
+                    : span / resolution[k];
+            firstCell[k + 1] = firstCell[k] + resolution[k] * resolution[k];
+        }
+        int cells = firstCell[classes];
+
+        // counting sort of edges by their cell
+        cellStart = new int[cells + 1];
+        int[] cellOf = new int[m];
+        for (int e = 0; e < m; e++) {
+            float x1 = x[source[e]];
+            float y1 = y[source[e]];
+            float x2 = x[target[e]];
+            float y2 = y[target[e]];
+            double extent = Math.max(Math.abs(x1 - x2), Math.abs(y1 - y2));
+            int k = 0;
+            while (extent > cellSize[k] && k < classes - 1) {
+                k++;
+            }
+            cellOf[e] = firstCell[k] + column(k, (x1 + x2) / 2.0)
+                    + row(k, (y1 + y2) / 2.0) * resolution[k];
+            cellStart[cellOf[e] + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        items = new int[m];
+        int[] next = new int[cells];
+        System.arraycopy(cellStart, 0, next, 0, cells);
+        for (int e = 0; e < m; e++) {
+            items[next[cellOf[e]]++] = e;
+        }
+    }
+
+    /**
+     * Returns the number of length classes.
+     */
+    int classCount() {
+        return resolution.length;
+    }
+
+    /**
+     * Returns the half of the size of a cell of the class, i.e. how far an
+     * edge of the class can reach beyond the cell of its midpoint.
+     */
+    double reach(int k) {
+        return cellSize[k] / 2;
+    }
+
+    /**
+     * Returns the column of the cell of the class containing the x
+     * coordinate, clamped to the grid.
+     */
+    int column(int k, double x) {
+        int c = (int) ((x - minX) / cellSize[k]);
+        return Math.max(0, Math.min(resolution[k] - 1, c));
+    }
+
+    /**
+     * Returns the row of the cell of the class containing the y coordinate,
+     * clamped to the grid.
+     */
+    int row(int k, double y) {
+        int r = (int) ((y - minY) / cellSize[k]);
+        return Math.max(0, Math.min(resolution[k] - 1, r));
+    }
+
+    /**
+     * Returns the first position in {@link #item} of edges of the cell.
+     */
+    int cellStart(int k, int column, int row) {
+        return cellStart[firstCell[k] + column + row * resolution[k]];
+    }
+
+    /**
+     * Returns the position in {@link #item} just behind the edges of the cell.
+     */
+    int cellEnd(int k, int column, int row) {
+        return cellStart[firstCell[k] + column + row * resolution[k] + 1];
+    }
+
+    /**
+     * Returns the edge stored at the given position.
+     */
+    int item(int position) {
+        return items[position];
+    }
+}
@@ -0,0 +1,232 @@
+package sk.upjs.kombinatorika;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Force-directed (Fruchterman-Reingold) layout of a graph. Vertices repel each
+ * other and edges pull their end vertices together. Repulsive forces are
+ * approximated with a {@link BarnesHutTree}, so an iteration takes
+ * O(n log n + m) time, and they are computed in parallel on a pool of
+ * background threads.
+ *
+ * The layout runs on its own thread. Every now and then it publishes an
+ * immutable {@link LayoutSnapshot} which can be drawn from the event dispatch
+ * thread without any locking.
+ *
+ * @author student
+ */
+class ForceLayout {
+
+    /** Accuracy of the Barnes-Hut approximation */
+    private static final double THETA = 0.9;
+    /**
+     * Pull of every vertex towards the origin keeping components together.
+     * Repelled by all n vertices, a vertex without edges settles where
+     * n / r = GRAVITY * r, so at r = sqrt(n / GRAVITY), about 2.6 sqrt(n);
+     * the connected part of a layout reaches 2 to 3 sqrt(n) from its centre,
+     * so such vertices stay next to it instead of far around it.
+     */
+    private static final double GRAVITY = 0.15;
+    private static final int MAX_ITERATIONS = 400;
+    private static final double COOLING = 0.98;
+    /** Minimum time between two published snapshots, in milliseconds */
+    private static final long PUBLISH_INTERVAL = 80;
+    /** Vertices handled by one parallel task */
+    private static final int CHUNK = 2048;
+
+    private final int n;
+    private final int[] source;
+    private final int[] target;
+    private final double[] x;
+    private final double[] y;
+    private final double[] dispX;
+    private final double[] dispY;
+    private final BarnesHutTree tree = new BarnesHutTree();
+    private final ExecutorService executor;
+
+    private volatile LayoutSnapshot snapshot;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Creates the layout of a graph with vertices 0..n-1. Vertices start at
+     * random positions.
+     *
+     * @param n number of vertices
+     * @param source sources of edges
+     * @param target targets of edges
+     */
+    ForceLayout(int n, int[] source, int[] target) {
+        this.n = n;
+        this.source = source;
+        this.target = target;
+        x = new double[n];
+        y = new double[n];
+        dispX = new double[n];
+        dispY = new double[n];
+
+        Random random = new Random(n);
+        double side = Math.sqrt(n) + 1;
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * side;
+            y[i] = random.nextDouble() * side;
+        }
+        snapshot = createSnapshot();
+
+        executor = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "layout-worker");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Returns the most recently published positions.
+     *
+     * @return latest snapshot of the layout
+     */
+    LayoutSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Starts the layout on a background thread.
+     *
+     * @param onUpdate called from the layout thread after a new snapshot is
+     * published
+     */
+    synchronized void start(final Runnable onUpdate) {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    runLayout(onUpdate);
+                } catch (InterruptedException e) {
+                    // stopped
+                } catch (ExecutionException e) {
+                    e.printStackTrace();
+                } finally {
+                    executor.shutdown();
+                }
+            }
+        }, "layout");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the layout. Positions computed so far stay available.
+     */
+    synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        } else {
+            executor.shutdown();
+        }
+    }
+
+    private void runLayout(Runnable onUpdate) throws InterruptedException,
+            ExecutionException {
+        double temperature = Math.sqrt(n) / 4 + 1;
+        long lastPublished = System.currentTimeMillis();
+        for (int iteration = 0; iteration < MAX_ITERATIONS && running; iteration++) {
+            step(temperature);
+            temperature = Math.max(temperature * COOLING, 0.01);
+
+            long now = System.currentTimeMillis();
+            if (now - lastPublished >= PUBLISH_INTERVAL
+                    || iteration == MAX_ITERATIONS - 1) {
+                snapshot = createSnapshot();
+                lastPublished = now;
+                onUpdate.run();
+            }
+        }
+        if (!running) {
+            return;
+        }
+        snapshot = createSnapshot();
+        onUpdate.run();
+    }
+
+    /**
+     * Performs one iteration: computes forces and moves every vertex by at
+     * most temperature.
+     */
+    private void step(double temperature) throws InterruptedException,
+            ExecutionException {
+        tree.build(x, y, n);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < n; from += CHUNK) {
+            final int start = from;
+            final int end = Math.min(n, from + CHUNK);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    int[] stack = new int[tree.stackSize()];
+                    double[] force = new double[2];
+                    for (int i = start; i < end; i++) {
+                        force[0] = -GRAVITY * x[i];
+                        force[1] = -GRAVITY * y[i];
+                        tree.repulsion(i, x[i], y[i], THETA, 1, stack, force);
+                        dispX[i] = force[0];
+                        dispY[i] = force[1];
+                    }
+                    return null;
+                }
+            });
+        }
+        for (Future<Void> f : executor.invokeAll(tasks)) {
+            f.get();
+        }
+
+        // attraction d^2/k along edges, with ideal edge length k = 1
+        for (int e = 0; e < source.length; e++) {
+            int u = source[e];
+            int v = target[e];
+            double dx = x[u] - x[v];
+            double dy = y[u] - y[v];
+            double dist = Math.sqrt(dx * dx + dy * dy);
+            dispX[u] -= dx * dist;
+            dispY[u] -= dy * dist;
+            dispX[v] += dx * dist;
+            dispY[v] += dy * dist;
+        }
+
+        for (int i = 0; i < n; i++) {
+            double length = Math.sqrt(dispX[i] * dispX[i] + dispY[i] * dispY[i]);
+            if (length > 0) {
+                double move = Math.min(length, temperature) / length;
+                x[i] += dispX[i] * move;
+                y[i] += dispY[i] * move;
+            }
+        }
+    }
+
+    private LayoutSnapshot createSnapshot() {
+        float[] fx = new float[n];
+        float[] fy = new float[n];
+        for (int i = 0; i < n; i++) {
+            fx[i] = (float) x[i];
+            fy[i] = (float) y[i];
+        }
+        return new LayoutSnapshot(fx, fy, source, target);
+    }
+}
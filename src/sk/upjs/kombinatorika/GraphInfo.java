@@ -1,280 +1,566 @@
-package sk.upjs.kombinatorika;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.Stack;
-import sk.upjs.paz.Edge;
-import sk.upjs.paz.Graph;
-import sk.upjs.paz.Vertex;
-
-/**
- *
- * @author student
- */
-public class GraphInfo {
-
-    private Graph graph;
-    private Set<Edge> edges;
-    private Set<Vertex> vertices;
-
-    public GraphInfo(Graph graph) {
-        this.graph = graph;
-        this.edges = graph.getEdges();
-        this.vertices = graph.getVertices();
-    }
-
-    /**
-     * Returns a string containing basic information about the graph: whether it
-     * is directed, weighted, connected, how many vertices and edges it has,
-     * list of edges, minimum and maximum vertex degree, whether the graph is
-     * regular and bipartite.
-     *
-     * @return string with basic information about the graph
-     */
-    public String basicGraphInfo() {
-        int minDegree = minDegree();
-        int maxDegree = maxDegree();
-        String basicInfo = "Orientovaný: " + booleanValueToString(graph.isDirected())
-                + "\n" + "Ohodnotený: " + weighted() + "\n" + "Súvislý: "
-                + connected() + "\n" + "Počet vrcholov: " + vertices.size()
-                + "\n" + "Počet hrán: " + edges.size() + "\n" + "Zoznam hrán: "
-                + "\n" + listOfEdges() + "\n" + "Minimálny stupeň vrchola: "
-                + minDegree + "\n" + "Maximálny stupeň vrchola: " + maxDegree
-                + "\n" + "Regulárny: "
-                + regular(minDegree, maxDegree) + "\n"
-                + "Bipartitný: " + isBipartite();
-
-        return basicInfo;
-    }
-
-    /**
-     * Tests if the undirected graph is connected. If the graph is directed, it
-     * tests if the graph is strongly connected.
-     *
-     * @return "áno" if the graph is connected; "nie" otherwise
-     */
-    private String connected() {
-        // tests if there is a directed path from every vertex to all the other vertices 
-        for (Vertex start : vertices) {
-            // visited - map with values saying if a vertex has been visited
-            // during depth-first search
-            Map<String, Boolean> visited = new HashMap<>();
-            for (Vertex v : vertices) {
-                visited.put(v.getLabel(), false);
-            }
-
-            Stack<Vertex> stack = new Stack<>();
-
-            String startLabel = start.getLabel();
-            visited.put(startLabel, true);
-
-            stack.push(start);
-
-            // depth-first search
-            while (!stack.isEmpty()) {
-                Vertex v = stack.pop();
-
-                for (Vertex neighbour : v.getOutNeighbours()) {
-                    String neighbourLabel = neighbour.getLabel();
-                    if (visited.get(neighbourLabel) == false) {
-                        visited.put(neighbourLabel, true);
-                        stack.push(neighbour);
-                    }
-                }
-            }
-
-            // if there is still an unvisited vertex, the graph is not connected
-            for (Boolean visitedVertex : visited.values()) {
-                if (!visitedVertex) {
-                    return "nie";
-                }
-            }
-        }
-        return "áno";
-    }
-
-    /**
-     * Tests if the graph is weighted.
-     *
-     * @return "áno" if the graph is weighted; "nie" otherwise
-     */
-    private String weighted() {
-        for (Edge edge : edges) {
-            if (edge.getWeight() != 1) {
-                return "áno";
-            }
-        }
-        return "nie";
-    }
-
-    /**
-     * Tests if the graph is regular.
-     *
-     * @param minDegree minimum degree of a vertex in the graph
-     * @param maxDegree maximum degree of a vertex in the graph
-     * @return áno" if the graph is regular; "nie" otherwise
-     */
-    private String regular(int minDegree, int maxDegree) {
-        if (minDegree != maxDegree) {
-            return "nie";
-        }
-
-        if (graph.isDirected()) {
-            for (Vertex vertex : vertices) {
-                if (vertex.getInNeighbours().size() != vertex
-                        .getOutNeighbours().size()) {
-                    return "nie";
-                }
-            }
-            return "áno";
-
-        } else {
-            return "áno";
-        }
-    }
-
-    /**
-     * Returns minimum of all degrees of vertices
-     *
-     * @return minimum degree of a vertex in the graph
-     */
-    private int minDegree() {
-        if (vertices.isEmpty()) {
-            return 0;
-        }
-        int minDegree = Integer.MAX_VALUE;
-        for (Vertex vertex : vertices) {
-            int vertexDegree = vertex.getEdges().size();
-            if (minDegree > vertexDegree) {
-                minDegree = vertexDegree;
-            }
-        }
-
-        return minDegree;
-    }
-
-    /**
-     * Returns maximum of all degrees of vertices.
-     *
-     * @return maximum degree of a vertex in the graph
-     */
-    private int maxDegree() {
-        if (vertices.isEmpty()) {
-            return 0;
-        }
-        int maxDegree = 0;
-        for (Vertex vertex : vertices) {
-            int vertexDegree = vertex.getEdges().size();
-            if (maxDegree < vertexDegree) {
-                maxDegree = vertexDegree;
-            }
-        }
-
-        return maxDegree;
-    }
-
-    /**
-     * Converts boolean value to string
-     *
-     * @param value a boolean value that will be converted
-     * @return "áno" if the parameter value is true; "nie" otherwise
-     */
-    private String booleanValueToString(boolean value) {
-        if (value) {
-            return "áno";
-        } else {
-            return "nie";
-        }
-    }
-
-    /**
-     * Returns string of all edges. Every edge from Vertex v1 to Vertex v2 with
-     * weight w is written out in this form: v1->v2: w, if the graph is
-     * directed; v1-v2: w, otherwise. Edges are separated by a comma.
-     *
-     * @return string with all edges and their weights
-     */
-    private String listOfEdges() {
-        String list = "";
-        String separator;
-        if (graph.isDirected()) {
-            separator = "->";
-        } else {
-            separator = "-";
-        }
-        for (Edge edge : edges) {
-            list += edge.getSource().getLabel() + separator
-                    + edge.getTarget().getLabel() + ": " + edge.getWeight()
-                    + ", ";
-        }
-
-        return list;
-    }
-
-    /**
-     * Tests if the graph is bipartite.
-     *
-     * @return "áno" if the graph is bipartite; "nie" otherwise
-     */
-    public String isBipartite() {
-        Map<String, Integer> colors = new HashMap<>();
-        for (Vertex vertex : vertices) {
-            colors.put(vertex.getLabel(), -1);
-        }
-        Stack<Vertex> stack = new Stack<>();
-
-        // group - marks one of the two groups of vertices, it can have value 0
-        // or 1
-        int group = 0;
-
-        // every component is checked
-        for (Vertex start : vertices) {
-            String startLabel = start.getLabel();
-
-            if (colors.get(startLabel) == -1) {
-                colors.put(startLabel, group);
-
-                stack.push(start);
-
-                // depth-first search of the component
-                while (!stack.isEmpty()) {
-                    Vertex v = stack.pop();
-                    String vLabel = v.getLabel();
-                    group = changeNumber(colors.get(vLabel));
-
-                    for (Vertex neighbour : v.getNeighbours()) {
-                        String neighbourLabel = neighbour.getLabel();
-                        if (colors.get(neighbourLabel) == -1) {
-                            colors.put(neighbourLabel, group);
-                            stack.push(neighbour);
-                            continue;
-                        }
-                        // the graph is not bipartite if there are two vertices from
-                        // the
-                        // same group that are connected with an edge
-                        if (colors.get(neighbourLabel) != group) {
-                            return "nie";
-                        }
-                    }
-                }
-            }
-        }
-        return "áno";
-    }
-
-    /**
-     * If parameter n is 0, the method returns 1, otherwise it returns 0.
-     *
-     * @param n integer value
-     * @return 1 if parameter n is 0; 0 otherwise
-     */
-    private int changeNumber(int n) {
-        if (n == 0) {
-            return 1;
-        } else {
-            return 0;
-        }
-
-    }
-}
+package sk.upjs.kombinatorika;
+
+import java.util.Random;
+import sk.upjs.paz.Graph;
+
+/**
+ * Basic properties of a graph. All traversals run over the
+ * {@link CompressedGraph} representation of the graph.
+ *
+ * @author student
+ */
+public class GraphInfo {
+
+    /** Breadth-first searches used to estimate the diameter */
+    private static final int DIAMETER_SWEEPS = 4;
+    /** Largest number of bins of the degree histogram with one degree per bin */
+    private static final int HISTOGRAM_BINS = 20;
+
+    private CompressedGraph graph;
+
+    public GraphInfo(Graph graph) {
+        this(CompressedGraph.fromGraph(graph));
+    }
+
+    public GraphInfo(CompressedGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Returns a string containing basic information about the graph: whether it
+     * is directed, weighted, connected, how many vertices and edges it has,
+     * list of edges, minimum and maximum vertex degree, whether the graph is
+     * regular and bipartite.
+     *
+     * @return string with basic information about the graph
+     */
+    public String basicGraphInfo() {
+        int minDegree = minDegree();
+        int maxDegree = maxDegree();
+        String basicInfo = "Orientovaný: " + booleanValueToString(graph.isDirected())
+                + "\n" + "Ohodnotený: " + weighted() + "\n" + "Súvislý: "
+                + connected() + "\n" + "Počet vrcholov: " + graph.vertexCount()
+                + "\n" + "Počet hrán: " + graph.edgeCount() + "\n" + "Zoznam hrán: "
+                + "\n" + listOfEdges() + "\n" + "Minimálny stupeň vrchola: "
+                + minDegree + "\n" + "Maximálny stupeň vrchola: " + maxDegree
+                + "\n" + "Regulárny: "
+                + regular(minDegree, maxDegree) + "\n"
+                + "Bipartitný: " + isBipartite();
+
+        return basicInfo;
+    }
+
+    /**
+     * Returns the basic information about the graph followed by the histogram
+     * of vertex degrees, the number of triangles, clustering coefficients and
+     * an estimate of the diameter. Triangles are counted exactly. Directions
+     * of edges and loops are ignored in all statistics except the degrees.
+     *
+     * @return string with extended information about the graph
+     */
+    public String extendedGraphInfo() {
+        return extendedGraphInfo(0);
+    }
+
+    /**
+     * Returns the extended information about the graph like
+     * {@link #extendedGraphInfo()}. If sampleSize is positive, the number of
+     * triangles and the clustering coefficients are estimated from that many
+     * randomly chosen vertices, with errors for 95 % confidence. A sample at
+     * least as large as the graph would take longer than the exact
+     * computation, so the values are then computed exactly.
+     *
+     * @param sampleSize number of sampled vertices; 0 for exact computation
+     * @return string with extended information about the graph
+     */
+    public String extendedGraphInfo(int sampleSize) {
+        StringBuilder info = new StringBuilder(basicGraphInfo());
+        info.append("\n").append(degreeInfo());
+        if (graph.vertexCount() > 0) {
+            info.append("\n").append(triangleInfo(sampleSize)).append("\n")
+                    .append(diameterInfo());
+        }
+        return info.toString();
+    }
+
+    /**
+     * Returns the histogram of vertex degrees, the part of
+     * {@link #extendedGraphInfo(int)} following the basic information.
+     *
+     * @return string with the histogram
+     */
+    String degreeInfo() {
+        return "Histogram stupňov vrcholov: " + "\n" + degreeHistogram();
+    }
+
+    /**
+     * Returns the number of triangles and the clustering coefficients, the
+     * part of {@link #extendedGraphInfo(int)} following the histogram. The
+     * graph must have a vertex.
+     *
+     * @param sampleSize number of sampled vertices; 0 for exact computation
+     * @return string with triangle statistics
+     */
+    String triangleInfo(int sampleSize) {
+        StringBuilder info = new StringBuilder();
+        GraphStatistics statistics = new GraphStatistics(graph);
+        if (sampleSize > 0 && sampleSize < graph.vertexCount()) {
+            GraphStatistics.SampledTriangles sampled = statistics
+                    .sampleTriangles(sampleSize, new Random());
+            info.append("Odhad z ").append(sampled.sampleSize)
+                    .append(" náhodných vrcholov (chyba pre 95 % spoľahlivosť):")
+                    .append("\n").append("Počet trojuholníkov: ")
+                    .append(estimateToString(sampled.triangles))
+                    .append("\n").append("Globálny koeficient zhlukovania: ")
+                    .append(estimateToString(sampled.globalClustering))
+                    .append("\n")
+                    .append("Priemerný lokálny koeficient zhlukovania: ")
+                    .append(estimateToString(sampled.averageLocalClustering));
+        } else {
+            long[] triangles = statistics.trianglesPerVertex();
+            double[] clustering = statistics.localClustering(triangles);
+            long triangleCount = 0;
+            double clusteringSum = 0;
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                triangleCount += triangles[v];
+                clusteringSum += clustering[v];
+            }
+            // every triangle is counted at its three vertices
+            triangleCount /= 3;
+            double wedges = statistics.wedges();
+            info.append("Počet trojuholníkov: ")
+                    .append(triangleCount).append("\n")
+                    .append("Globálny koeficient zhlukovania: ")
+                    .append(wedges == 0 ? 0 : 3 * triangleCount / wedges)
+                    .append("\n")
+                    .append("Priemerný lokálny koeficient zhlukovania: ")
+                    .append(clusteringSum / graph.vertexCount()).append("\n")
+                    .append("Lokálne koeficienty zhlukovania: ").append("\n");
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                info.append(graph.label(v)).append(": ").append(clustering[v])
+                        .append(", ");
+            }
+        }
+        return info.toString();
+    }
+
+    /**
+     * Returns the estimate of the diameter and the radius, the last part of
+     * {@link #extendedGraphInfo(int)}. The graph must have a vertex.
+     *
+     * @return string with the diameter estimate
+     */
+    String diameterInfo() {
+        StringBuilder info = new StringBuilder();
+        GraphStatistics.DiameterEstimate diameter = new GraphStatistics(graph)
+                .estimateDiameter(DIAMETER_SWEEPS);
+        info.append("Excentricita vrchola ")
+                .append(graph.label(diameter.start)).append(": ")
+                .append(diameter.startEccentricity).append("\n");
+        if (diameter.componentSize < graph.vertexCount()) {
+            info.append("Komponent vrchola ").append(graph.label(diameter.start))
+                    .append(" (").append(diameter.componentSize)
+                    .append(" vrcholov) - ");
+        }
+        if (diameter.lowerBound == diameter.upperBound) {
+            info.append("Priemer: ").append(diameter.lowerBound);
+        } else {
+            info.append("Priemer: od ").append(diameter.lowerBound)
+                    .append(" do ").append(diameter.upperBound);
+        }
+        info.append("\n").append("Polomer: najviac ")
+                .append(diameter.radiusUpperBound);
+
+        return info.toString();
+    }
+
+    /**
+     * Returns the number of vertices of the graph.
+     *
+     * @return number of vertices
+     */
+    public int vertexCount() {
+        return graph.vertexCount();
+    }
+
+    /**
+     * Returns the number of edges of the graph. An undirected edge is counted
+     * once.
+     *
+     * @return number of edges
+     */
+    public int edgeCount() {
+        return graph.edgeCount();
+    }
+
+    /**
+     * Returns the ratio of the number of edges to the largest possible number
+     * of edges of a graph without loops with the same number of vertices.
+     *
+     * @return density of the graph between 0 and 1
+     */
+    public double density() {
+        double n = graph.vertexCount();
+        if (n < 2) {
+            return 0;
+        }
+        double maxEdges = n * (n - 1);
+        if (!graph.isDirected()) {
+            maxEdges /= 2;
+        }
+        return graph.edgeCount() / maxEdges;
+    }
+
+    /**
+     * Tests if some edge of the graph has a negative weight.
+     *
+     * @return true if there is an edge with negative weight; false otherwise
+     */
+    public boolean hasNegativeWeights() {
+        return graph.minWeight() < 0;
+    }
+
+    /**
+     * Tests if the undirected graph is connected. If the graph is directed, it
+     * tests if the graph is strongly connected.
+     *
+     * @return "áno" if the graph is connected; "nie" otherwise
+     */
+    private String connected() {
+        if (graph.vertexCount() == 0) {
+            return "áno";
+        }
+        // an undirected graph is connected if all vertices are reachable from
+        // one of them; a directed graph is strongly connected if additionally
+        // that vertex is reachable from all vertices
+        if (!reachesAll(false)) {
+            return "nie";
+        }
+        if (graph.isDirected() && !reachesAll(true)) {
+            return "nie";
+        }
+        return "áno";
+    }
+
+    /**
+     * Tests if all vertices are visited by depth-first search from vertex 0.
+     *
+     * @param reverse true if edges should be followed against their direction
+     * @return true if all vertices have been visited
+     */
+    private boolean reachesAll(boolean reverse) {
+        int n = graph.vertexCount();
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        int top = 0;
+        visited[0] = true;
+        stack[top++] = 0;
+        int visitedCount = 1;
+
+        CompressedGraph.Cursor cursor = graph.cursor();
+        while (top > 0) {
+            int v = stack[--top];
+            if (reverse) {
+                cursor.moveToIn(v);
+            } else {
+                cursor.moveToOut(v);
+            }
+            while (cursor.hasNext()) {
+                int neighbour = cursor.next();
+                if (!visited[neighbour]) {
+                    visited[neighbour] = true;
+                    visitedCount++;
+                    stack[top++] = neighbour;
+                }
+            }
+        }
+        return visitedCount == n;
+    }
+
+    /**
+     * Tests if the graph is weighted.
+     *
+     * @return "áno" if the graph is weighted; "nie" otherwise
+     */
+    private String weighted() {
+        if (graph.minWeight() != 1 || graph.maxWeight() != 1) {
+            return "áno";
+        }
+        return "nie";
+    }
+
+    /**
+     * Tests if the graph is regular.
+     *
+     * @param minDegree minimum degree of a vertex in the graph
+     * @param maxDegree maximum degree of a vertex in the graph
+     * @return áno" if the graph is regular; "nie" otherwise
+     */
+    private String regular(int minDegree, int maxDegree) {
+        if (minDegree != maxDegree) {
+            return "nie";
+        }
+
+        if (graph.isDirected()) {
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                if (graph.inDegree(v) != graph.outDegree(v)) {
+                    return "nie";
+                }
+            }
+            return "áno";
+
+        } else {
+            return "áno";
+        }
+    }
+
+    /**
+     * Returns minimum of all degrees of vertices
+     *
+     * @return minimum degree of a vertex in the graph
+     */
+    private int minDegree() {
+        if (graph.vertexCount() == 0) {
+            return 0;
+        }
+        int minDegree = Integer.MAX_VALUE;
+        CompressedGraph.Cursor cursor = graph.cursor();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            int vertexDegree = degree(v, cursor);
+            if (minDegree > vertexDegree) {
+                minDegree = vertexDegree;
+            }
+        }
+
+        return minDegree;
+    }
+
+    /**
+     * Returns maximum of all degrees of vertices.
+     *
+     * @return maximum degree of a vertex in the graph
+     */
+    private int maxDegree() {
+        if (graph.vertexCount() == 0) {
+            return 0;
+        }
+        int maxDegree = 0;
+        CompressedGraph.Cursor cursor = graph.cursor();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            int vertexDegree = degree(v, cursor);
+            if (maxDegree < vertexDegree) {
+                maxDegree = vertexDegree;
+            }
+        }
+
+        return maxDegree;
+    }
+
+    /**
+     * Returns the number of edges incident with the vertex. A loop is counted
+     * once.
+     *
+     * @param v the vertex
+     * @param cursor cursor used to look for a loop at v
+     * @return degree of the vertex
+     */
+    private int degree(int v, CompressedGraph.Cursor cursor) {
+        if (!graph.isDirected()) {
+            return graph.outDegree(v);
+        }
+        int degree = graph.outDegree(v) + graph.inDegree(v);
+        cursor.moveToOut(v);
+        while (cursor.hasNext()) {
+            if (cursor.next() == v) {
+                degree--;
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * Returns numbers of vertices of every degree in the form degree: count,
+     * separated by a comma. If there are too many distinct degrees, degrees
+     * are grouped into bins 0, 1, 2-3, 4-7, 8-15, ...
+     *
+     * @return string with the histogram of degrees
+     */
+    private String degreeHistogram() {
+        int n = graph.vertexCount();
+        int[] degrees = new int[n];
+        CompressedGraph.Cursor cursor = graph.cursor();
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            degrees[v] = degree(v, cursor);
+            maxDegree = Math.max(maxDegree, degrees[v]);
+        }
+        int[] counts = new int[maxDegree + 1];
+        int distinct = 0;
+        for (int v = 0; v < n; v++) {
+            if (counts[degrees[v]]++ == 0) {
+                distinct++;
+            }
+        }
+
+        StringBuilder histogram = new StringBuilder();
+        if (distinct <= HISTOGRAM_BINS) {
+            for (int d = 0; d <= maxDegree; d++) {
+                if (counts[d] > 0) {
+                    histogram.append(d).append(": ").append(counts[d])
+                            .append(", ");
+                }
+            }
+        } else {
+            int from = 0;
+            while (from <= maxDegree) {
+                int to = Math.min(from == 0 ? 0 : 2 * from - 1, maxDegree);
+                int count = 0;
+                for (int d = from; d <= to; d++) {
+                    count += counts[d];
+                }
+                if (count > 0) {
+                    histogram.append(from);
+                    if (to > from) {
+                        histogram.append("-").append(to);
+                    }
+                    histogram.append(": ").append(count).append(", ");
+                }
+                from = to + 1;
+            }
+        }
+        return histogram.toString();
+    }
+
+    /**
+     * Converts an estimate to string in the form value ± error.
+     *
+     * @param estimate the estimate
+     * @return string with the estimate
+     */
+    private String estimateToString(GraphStatistics.Estimate estimate) {
+        return estimate.value + " ± " + estimate.error;
+    }
+
+    /**
+     * Converts boolean value to string
+     *
+     * @param value a boolean value that will be converted
+     * @return "áno" if the parameter value is true; "nie" otherwise
+     */
+    private String booleanValueToString(boolean value) {
+        if (value) {
+            return "áno";
+        } else {
+            return "nie";
+        }
+    }
+
+    /**
+     * Returns string of all edges. Every edge from Vertex v1 to Vertex v2 with
+     * weight w is written out in this form: v1->v2: w, if the graph is
+     * directed; v1-v2: w, otherwise. Edges are separated by a comma.
+     *
+     * @return string with all edges and their weights
+     */
+    private String listOfEdges() {
+        StringBuilder list = new StringBuilder();
+        String separator;
+        if (graph.isDirected()) {
+            separator = "->";
+        } else {
+            separator = "-";
+        }
+        CompressedGraph.Cursor cursor = graph.cursor();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            cursor.moveToOut(v);
+            while (cursor.hasNext()) {
+                int neighbour = cursor.next();
+                // an undirected edge is listed once, at its end vertex which
+                // comes first in the graph (not necessarily the smaller label)
+                if (graph.isDirected() || v <= neighbour) {
+                    list.append(graph.label(v)).append(separator)
+                            .append(graph.label(neighbour)).append(": ")
+                            .append(cursor.weight()).append(", ");
+                }
+            }
+        }
+
+        return list.toString();
+    }
+
+    /**
+     * Tests if the graph is bipartite.
+     *
+     * @return "áno" if the graph is bipartite; "nie" otherwise
+     */
+    public String isBipartite() {
+        int n = graph.vertexCount();
+        int[] colors = new int[n];
+        for (int v = 0; v < n; v++) {
+            colors[v] = -1;
+        }
+        int[] stack = new int[n];
+        int top = 0;
+        CompressedGraph.Cursor cursor = graph.cursor();
+
+        // group - marks one of the two groups of vertices, it can have value 0
+        // or 1
+        int group = 0;
+
+        // every component is checked
+        for (int start = 0; start < n; start++) {
+            if (colors[start] == -1) {
+                colors[start] = group;
+
+                stack[top++] = start;
+
+                // depth-first search of the component; in a directed graph
+                // edges are followed in both directions
+                while (top > 0) {
+                    int v = stack[--top];
+                    group = changeNumber(colors[v]);
+
+                    for (int direction = 0; direction < 2; direction++) {
+                        if (direction == 0) {
+                            cursor.moveToOut(v);
+                        } else if (graph.isDirected()) {
+                            cursor.moveToIn(v);
+                        } else {
+                            break;
+                        }
+                        while (cursor.hasNext()) {
+                            int neighbour = cursor.next();
+                            if (colors[neighbour] == -1) {
+                                colors[neighbour] = group;
+                                stack[top++] = neighbour;
+                                continue;
+                            }
+                            // the graph is not bipartite if there are two
+                            // vertices from the same group that are connected
+                            // with an edge
+                            if (colors[neighbour] != group) {
+                                return "nie";
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return "áno";
+    }
+
+    /**
+     * If parameter n is 0, the method returns 1, otherwise it returns 0.
+     *
+     * @param n integer value
+     * @return 1 if parameter n is 0; 0 otherwise
+     */
+    private int changeNumber(int n) {
+        if (n == 0) {
+            return 1;
+        } else {
+            return 0;
+        }
+
+    }
+}
@@ -11,8 +11,11 @@
 package sk.upjs.kombinatorika;
 
 import java.io.File;
+import java.util.List;
 import javax.swing.JFileChooser;
+import javax.swing.JFrame;
 import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
 import sk.upjs.paz.Graph;
 
 /**
@@ -52,6 +55,8 @@ public class GraphJFrame extends javax.swing.JFrame {
         christofidesBtn = new javax.swing.JButton();
         maxTokBtn = new javax.swing.JButton();
         matchingBtn = new javax.swing.JButton();
+        drawBtn = new javax.swing.JButton();
+        statsBtn = new javax.swing.JButton();
         jLabel1 = new javax.swing.JLabel();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
@@ -82,7 +87,7 @@ public class GraphJFrame extends javax.swing.JFrame {
             }
         });
 
-        floydBtn.setText("Optimálne vzdialenosti (Floyd)");
+        floydBtn.setText("Optimálne vzdialenosti (Floyd/Johnson)");
         floydBtn.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
                 floydBtnActionPerformed(evt);
@@ -124,6 +129,20 @@ public class GraphJFrame extends javax.swing.JFrame {
             }
         });
 
+        drawBtn.setText("Zobraz graf");
+        drawBtn.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                drawBtnActionPerformed(evt);
+            }
+        });
+
+        statsBtn.setText("Rozšírené informácie o grafe");
+        statsBtn.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                statsBtnActionPerformed(evt);
+            }
+        });
+
         jLabel1.setText("© 2014 by Štefan Bocko, Matej Aštary, Július Mareš");
 
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
@@ -138,6 +157,8 @@ public class GraphJFrame extends javax.swing.JFrame {
                         .addComponent(jLabel1, javax.swing.GroupLayout.PREFERRED_SIZE, 330, javax.swing.GroupLayout.PREFERRED_SIZE))
                     .addGroup(layout.createSequentialGroup()
                         .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                            .addComponent(statsBtn, javax.swing.GroupLayout.DEFAULT_SIZE, 247, Short.MAX_VALUE)
+                            .addComponent(drawBtn, javax.swing.GroupLayout.DEFAULT_SIZE, 247, Short.MAX_VALUE)
                             .addComponent(matchingBtn, javax.swing.GroupLayout.DEFAULT_SIZE, 247, Short.MAX_VALUE)
                             .addComponent(maxTokBtn, javax.swing.GroupLayout.DEFAULT_SIZE, 247, Short.MAX_VALUE)
                             .addComponent(christofidesBtn, javax.swing.GroupLayout.PREFERRED_SIZE, 247, Short.MAX_VALUE)
@@ -178,7 +199,11 @@ public class GraphJFrame extends javax.swing.JFrame {
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
                         .addComponent(maxTokBtn)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
-                        .addComponent(matchingBtn))
+                        .addComponent(matchingBtn)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(drawBtn)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(statsBtn))
                     .addComponent(jScrollPane1))
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(jLabel1)
@@ -194,7 +219,52 @@ private void floydBtnActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRS
         outputTextArea.setText("Žiadny graf nie je k dispozícii! Najprv načítajte graf.");
         return;
     }
-    outputTextArea.setText("Floydov algoritmus ešte nie je naimplementovaný");
+    JFileChooser fileChooser = new JFileChooser();
+    if(fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION){
+        return;
+    }
+    final String filename = fileChooser.getSelectedFile().getPath();
+    final Graph source = graph;
+    outputTextArea.setText("Počítam vzdialenosti...");
+    floydBtn.setEnabled(false);
+
+    // indexing the graph and choosing the method take time, so they are done
+    // in the background as well
+    new SwingWorker<Boolean, String>() {
+        private long start = System.currentTimeMillis();
+        private volatile String methodName;
+
+        @Override
+        protected Boolean doInBackground() throws Exception {
+            AllPairsShortestPaths apsp = new AllPairsShortestPaths(source);
+            AllPairsShortestPaths.Method method = apsp.chooseMethod();
+            methodName = method == AllPairsShortestPaths.Method.FLOYD
+                    ? "Floydov algoritmus" : "Johnsonov algoritmus";
+            publish(methodName + ": počítam vzdialenosti...");
+            return apsp.writeDistances(filename, method);
+        }
+
+        @Override
+        protected void process(List<String> messages) {
+            outputTextArea.setText(messages.get(messages.size() - 1));
+        }
+
+        @Override
+        protected void done() {
+            floydBtn.setEnabled(true);
+            try {
+                if(get()){
+                    outputTextArea.setText(methodName + "\n"
+                            + "Vzdialenosti zapísané do súboru: " + filename + "\n"
+                            + "Čas výpočtu: " + (System.currentTimeMillis() - start) + " ms");
+                }else{
+                    outputTextArea.setText("Graf obsahuje cyklus zápornej dĺžky, vzdialenosti nie sú definované.");
+                }
+            } catch (Exception e) {
+                outputTextArea.setText("Vzdialenosti sa nepodarilo zapísať: " + e.getMessage());
+            }
+        }
+    }.execute();
 }//GEN-LAST:event_floydBtnActionPerformed
 
 private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
@@ -281,6 +351,53 @@ private void matchingBtnActionPerformed(java.awt.event.ActionEvent evt) {//GEN-F
     outputTextArea.setText("Matching maximálnej váhy ešte nie je naimplementovaný");
 }//GEN-LAST:event_matchingBtnActionPerformed
 
+private void drawBtnActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_drawBtnActionPerformed
+    if(graph == null){
+        outputTextArea.setText("Žiadny graf nie je k dispozícii! Najprv načítajte graf.");
+        return;
+    }
+    final GraphPanel graphPanel = new GraphPanel(graph);
+    JFrame frame = new JFrame(suborTextfield.getText());
+    frame.setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
+    frame.addWindowListener(new java.awt.event.WindowAdapter() {
+        @Override
+        public void windowClosed(java.awt.event.WindowEvent e) {
+            graphPanel.stopLayout();
+        }
+    });
+    frame.getContentPane().add(graphPanel);
+    frame.pack();
+    frame.setLocationRelativeTo(this);
+    frame.setVisible(true);
+}//GEN-LAST:event_drawBtnActionPerformed
+
+private void statsBtnActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_statsBtnActionPerformed
+    if(graph == null){
+        outputTextArea.setText("Žiadny graf nie je k dispozícii! Najprv načítajte graf.");
+        return;
+    }
+    final GraphInfo gi = new GraphInfo(graph);
+    outputTextArea.setText("Počítam rozšírené informácie o grafe...");
+    statsBtn.setEnabled(false);
+
+    new SwingWorker<String, Void>() {
+        @Override
+        protected String doInBackground() throws Exception {
+            return gi.extendedGraphInfo();
+        }
+
+        @Override
+        protected void done() {
+            statsBtn.setEnabled(true);
+            try {
+                outputTextArea.setText(get());
+            } catch (Exception e) {
+                outputTextArea.setText("Informácie sa nepodarilo vypočítať: " + e.getMessage());
+            }
+        }
+    }.execute();
+}//GEN-LAST:event_statsBtnActionPerformed
+
     /**
      * @param args the command line arguments
      */
@@ -319,6 +436,7 @@ private void matchingBtnActionPerformed(java.awt.event.ActionEvent evt) {//GEN-F
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JButton christofidesBtn;
     private javax.swing.JButton dijkstraBtn;
+    private javax.swing.JButton drawBtn;
     private javax.swing.JButton floydBtn;
     private javax.swing.JButton fordBtn;
     private javax.swing.JButton jButton1;
@@ -329,6 +447,7 @@ private void matchingBtnActionPerformed(java.awt.event.ActionEvent evt) {//GEN-F
     private javax.swing.JButton maxTokBtn;
     private javax.swing.JTextArea outputTextArea;
     private javax.swing.JButton primBtn;
+    private javax.swing.JButton statsBtn;
     private javax.swing.JTextField suborTextfield;
     // End of variables declaration//GEN-END:variables
 }
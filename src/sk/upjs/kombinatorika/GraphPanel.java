@@ -0,0 +1,407 @@
+package sk.upjs.kombinatorika;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.Map;
+import javax.swing.JPanel;
+import sk.upjs.paz.Edge;
+import sk.upjs.paz.Graph;
+import sk.upjs.paz.Vertex;
+
+/**
+ * Panel drawing a graph laid out by a {@link ForceLayout}. The view can be
+ * moved by dragging with the mouse and zoomed with the mouse wheel.
+ *
+ * Only vertices and edges inside the visible area are drawn; both are found
+ * through spatial indices of the {@link LayoutSnapshot}. When too many
+ * vertices or edges are visible, vertices and edges are drawn aggregated by
+ * cells of one of the levels of detail of the snapshot instead. A level has at
+ * most a fixed number of cells and aggregated edges, so painting never has to
+ * go through all vertices or edges of a large graph.
+ *
+ * @author student
+ */
+public class GraphPanel extends JPanel {
+
+    /** Largest number of visible vertices drawn in full detail */
+    private static final int DETAIL_VERTEX_LIMIT = 5000;
+    /** Largest number of candidate visible edges drawn in full detail */
+    private static final int DETAIL_EDGE_LIMIT = 20000;
+    /** Minimum size of a cell of a level of detail on screen, in pixels */
+    private static final double MIN_CELL_PIXELS = 6;
+    /** Labels are drawn only if at most this many vertices are visible */
+    private static final int LABEL_LIMIT = 300;
+    /**
+     * Antialiasing is used only if at most this many vertices and candidate
+     * edges are visible
+     */
+    private static final int ANTIALIAS_LIMIT = 2000;
+    private static final int VERTEX_SIZE = 6;
+    private static final Color VERTEX_COLOR = new Color(30, 90, 180);
+    private static final Color EDGE_COLOR = new Color(120, 120, 120);
+    /**
+     * Colors of aggregated edges, darker the more edges they stand for. They
+     * are opaque mixtures of the edge color with the white background, since
+     * translucent lines are many times slower to draw.
+     */
+    private static final Color[] SHADE_COLORS = new Color[LayoutSnapshot.SHADES];
+
+    static {
+        for (int s = 0; s < SHADE_COLORS.length; s++) {
+            // opacity grows with the logarithm of the number of edges
+            double alpha = Math.min(1, 0.15 + 0.15 * s * Math.log(2));
+            SHADE_COLORS[s] = new Color(
+                    (int) Math.round(255 + alpha * (EDGE_COLOR.getRed() - 255)),
+                    (int) Math.round(255 + alpha * (EDGE_COLOR.getGreen() - 255)),
+                    (int) Math.round(255 + alpha * (EDGE_COLOR.getBlue() - 255)));
+        }
+    }
+
+    /** Set, together with the layout, once the graph has been prepared */
+    private String[] labels;
+    private int[] source;
+    private int[] target;
+    private volatile ForceLayout layout;
+    private boolean stopped;
+
+    /** Screen point = world point * scale + offset */
+    private double scale = 1;
+    private double offsetX;
+    private double offsetY;
+    /** Keeps the whole graph in view until the user moves it */
+    private boolean fitToView = true;
+
+    /**
+     * Creates the panel. The graph is prepared and laid out on background
+     * threads; until the first positions are ready the panel shows a message.
+     * The graph must not be changed while it is being prepared.
+     *
+     * @param graph the graph to draw
+     */
+    public GraphPanel(final Graph graph) {
+        setBackground(Color.WHITE);
+        setPreferredSize(new java.awt.Dimension(800, 600));
+
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            private int lastX;
+            private int lastY;
+
+            @Override
+            public void mousePressed(MouseEvent evt) {
+                lastX = evt.getX();
+                lastY = evt.getY();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent evt) {
+                fitToView = false;
+                offsetX += evt.getX() - lastX;
+                offsetY += evt.getY() - lastY;
+                lastX = evt.getX();
+                lastY = evt.getY();
+                repaint();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent evt) {
+                fitToView = false;
+                double factor = Math.pow(1.2, -evt.getPreciseWheelRotation());
+                offsetX = evt.getX() - (evt.getX() - offsetX) * factor;
+                offsetY = evt.getY() - (evt.getY() - offsetY) * factor;
+                scale *= factor;
+                repaint();
+            }
+        };
+        addMouseListener(mouseHandler);
+        addMouseMotionListener(mouseHandler);
+        addMouseWheelListener(mouseHandler);
+
+        Thread preparation = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                prepare(graph);
+            }
+        }, "layout-preparation");
+        preparation.setDaemon(true);
+        preparation.start();
+    }
+
+    /**
+     * Numbers the vertices and edges of the graph, creates the layout and
+     * starts it, unless the panel has been stopped in the meantime.
+     */
+    private void prepare(Graph graph) {
+        String[] labels = new String[graph.getVertices().size()];
+        Map<Vertex, Integer> indices = IndexedGraph.numberVertices(graph, labels);
+        int[] source = new int[graph.getEdges().size()];
+        int[] target = new int[source.length];
+        int e = 0;
+        for (Edge edge : graph.getEdges()) {
+            source[e] = indices.get(edge.getSource());
+            target[e] = indices.get(edge.getTarget());
+            e++;
+        }
+        this.labels = labels;
+        this.source = source;
+        this.target = target;
+
+        ForceLayout layout = new ForceLayout(labels.length, source, target);
+        synchronized (this) {
+            if (stopped) {
+                layout.stop();
+                return;
+            }
+            // the volatile write publishes the arrays above to painting
+            this.layout = layout;
+            layout.start(new Runnable() {
+                @Override
+                public void run() {
+                    repaint();
+                }
+            });
+        }
+        repaint();
+    }
+
+    /**
+     * Stops the background layout. It should be called when the panel is no
+     * longer displayed.
+     */
+    public synchronized void stopLayout() {
+        stopped = true;
+        if (layout != null) {
+            layout.stop();
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
+        ForceLayout layout = this.layout;
+        if (layout == null) {
+            g2.setColor(Color.BLACK);
+            g2.drawString("Pripravuje sa rozloženie grafu...", 20, 30);
+            return;
+        }
+        LayoutSnapshot snapshot = layout.getSnapshot();
+        if (fitToView) {
+            fit(snapshot);
+        }
+
+        // visible area in layout coordinates
+        double minX = -offsetX / scale;
+        double minY = -offsetY / scale;
+        double maxX = (getWidth() - offsetX) / scale;
+        double maxY = (getHeight() - offsetY) / scale;
+
+        int visibleVertices = countVertices(snapshot, minX, minY, maxX, maxY,
+                DETAIL_VERTEX_LIMIT);
+        int visibleEdges = visibleVertices > DETAIL_VERTEX_LIMIT ? 0
+                : countEdges(snapshot, minX, minY, maxX, maxY, DETAIL_EDGE_LIMIT);
+        if (visibleVertices <= DETAIL_VERTEX_LIMIT
+                && visibleEdges <= DETAIL_EDGE_LIMIT) {
+            if (visibleVertices <= ANTIALIAS_LIMIT
+                    && visibleEdges <= ANTIALIAS_LIMIT) {
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                        RenderingHints.VALUE_ANTIALIAS_ON);
+            }
+            paintEdges(g2, snapshot, minX, minY, maxX, maxY);
+            paintVertices(g2, snapshot, minX, minY, maxX, maxY,
+                    visibleVertices <= LABEL_LIMIT);
+        } else {
+            paintLevel(g2, chooseLevel(snapshot), minX, minY, maxX, maxY);
+        }
+    }
+
+    /**
+     * Returns the finest level of detail whose cells are still large enough
+     * on screen, or the coarsest level if there is none.
+     */
+    private LayoutSnapshot.Level chooseLevel(LayoutSnapshot snapshot) {
+        LayoutSnapshot.Level[] levels = snapshot.levels;
+        for (int l = levels.length - 1; l > 0; l--) {
+            if (levels[l].cellSize * scale >= MIN_CELL_PIXELS) {
+                return levels[l];
+            }
+        }
+        return levels[0];
+    }
+
+    private void fit(LayoutSnapshot snapshot) {
+        double margin = 20;
+        double width = Math.max(getWidth() - 2 * margin, 1);
+        double height = Math.max(getHeight() - 2 * margin, 1);
+        scale = Math.min(width, height) / snapshot.span();
+        offsetX = margin - snapshot.minX * scale
+                + (width - (snapshot.maxX - snapshot.minX) * scale) / 2;
+        offsetY = margin - snapshot.minY * scale
+                + (height - (snapshot.maxY - snapshot.minY) * scale) / 2;
+    }
+
+    /**
+     * Counts vertices in the grid cells overlapping the rectangle, stopping
+     * as soon as the count exceeds the limit.
+     */
+    private static int countVertices(LayoutSnapshot snapshot, double minX,
+            double minY, double maxX, double maxY, int limit) {
+        SpatialGrid grid = snapshot.grid;
+        int toColumn = grid.column(maxX);
+        int toRow = grid.row(maxY);
+        int count = 0;
+        for (int row = grid.row(minY); row <= toRow && count <= limit; row++) {
+            for (int column = grid.column(minX); column <= toColumn; column++) {
+                count += grid.cellEnd(column, row) - grid.cellStart(column, row);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts edges in the cells of the edge grid which may reach into the
+     * rectangle, stopping as soon as the count exceeds the limit.
+     */
+    private static int countEdges(LayoutSnapshot snapshot, double minX,
+            double minY, double maxX, double maxY, int limit) {
+        EdgeGrid edges = snapshot.edges;
+        int count = 0;
+        for (int k = 0; k < edges.classCount() && count <= limit; k++) {
+            double reach = edges.reach(k);
+            int fromColumn = edges.column(k, minX - reach);
+            int toColumn = edges.column(k, maxX + reach);
+            int toRow = edges.row(k, maxY + reach);
+            for (int row = edges.row(k, minY - reach); row <= toRow; row++) {
+                count += edges.cellEnd(k, toColumn, row)
+                        - edges.cellStart(k, fromColumn, row);
+            }
+        }
+        return count;
+    }
+
+    private void paintEdges(Graphics2D g2, LayoutSnapshot snapshot,
+            double minX, double minY, double maxX, double maxY) {
+        g2.setColor(EDGE_COLOR);
+        EdgeGrid edges = snapshot.edges;
+        for (int k = 0; k < edges.classCount(); k++) {
+            double reach = edges.reach(k);
+            int fromColumn = edges.column(k, minX - reach);
+            int toColumn = edges.column(k, maxX + reach);
+            int toRow = edges.row(k, maxY + reach);
+            for (int row = edges.row(k, minY - reach); row <= toRow; row++) {
+                // cells of a row are stored one after another
+                int end = edges.cellEnd(k, toColumn, row);
+                for (int p = edges.cellStart(k, fromColumn, row); p < end; p++) {
+                    int e = edges.item(p);
+                    drawSegment(g2, snapshot.x[source[e]],
+                            snapshot.y[source[e]], snapshot.x[target[e]],
+                            snapshot.y[target[e]], minX, minY, maxX, maxY);
+                }
+            }
+        }
+    }
+
+    private void paintVertices(Graphics2D g2, LayoutSnapshot snapshot,
+            double minX, double minY, double maxX, double maxY,
+            boolean drawLabels) {
+        SpatialGrid grid = snapshot.grid;
+        int fromColumn = grid.column(minX);
+        int toColumn = grid.column(maxX);
+        int fromRow = grid.row(minY);
+        int toRow = grid.row(maxY);
+
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                int end = grid.cellEnd(column, row);
+                for (int p = grid.cellStart(column, row); p < end; p++) {
+                    int v = grid.item(p);
+                    float x = snapshot.x[v];
+                    float y = snapshot.y[v];
+                    if (x < minX || x > maxX || y < minY || y > maxY) {
+                        continue;
+                    }
+                    int sx = (int) (x * scale + offsetX);
+                    int sy = (int) (y * scale + offsetY);
+                    g2.setColor(VERTEX_COLOR);
+                    g2.fillOval(sx - VERTEX_SIZE / 2, sy - VERTEX_SIZE / 2,
+                            VERTEX_SIZE, VERTEX_SIZE);
+                    if (drawLabels) {
+                        g2.setColor(Color.BLACK);
+                        g2.drawString(labels[v], sx + VERTEX_SIZE, sy - VERTEX_SIZE);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws a level of detail: every non-empty cell as a point and every
+     * aggregated edge as a line, more opaque the more edges it stands for.
+     */
+    private void paintLevel(Graphics2D g2, LayoutSnapshot.Level level,
+            double minX, double minY, double maxX, double maxY) {
+        for (int s = 0; s < LayoutSnapshot.SHADES; s++) {
+            g2.setColor(SHADE_COLORS[s]);
+            for (int e = level.shadeStart[s]; e < level.shadeStart[s + 1]; e++) {
+                int a = level.edgeFrom[e];
+                int b = level.edgeTo[e];
+                drawSegment(g2, level.cellX[a], level.cellY[a],
+                        level.cellX[b], level.cellY[b], minX, minY, maxX, maxY);
+            }
+        }
+
+        g2.setColor(VERTEX_COLOR);
+        for (int c = 0; c < level.cellCount.length; c++) {
+            int count = level.cellCount[c];
+            float x = level.cellX[c];
+            float y = level.cellY[c];
+            if (count == 0 || x < minX || x > maxX || y < minY || y > maxY) {
+                continue;
+            }
+            int size = 2 + (int) Math.log(count);
+            g2.fillRect((int) (x * scale + offsetX) - size / 2,
+                    (int) (y * scale + offsetY) - size / 2, size, size);
+        }
+    }
+
+    /**
+     * Draws the part of a segment inside the visible rectangle. The segment
+     * is clipped in layout coordinates (Liang-Barsky), so that screen
+     * coordinates of a long edge of a zoomed-in graph stay small.
+     */
+    private void drawSegment(Graphics2D g2, double x1,
+            double y1, double x2, double y2, double minX, double minY,
+            double maxX, double maxY) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {x1 - minX, maxX - x1, y1 - minY, maxY - y1};
+        double from = 0;
+        double to = 1;
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) {
+                    return;
+                }
+            } else {
+                double t = q[i] / p[i];
+                if (p[i] < 0) {
+                    from = Math.max(from, t);
+                } else {
+                    to = Math.min(to, t);
+                }
+            }
+        }
+        if (from > to) {
+            return;
+        }
+        g2.drawLine((int) ((x1 + from * dx) * scale + offsetX),
+                (int) ((y1 + from * dy) * scale + offsetY),
+                (int) ((x1 + to * dx) * scale + offsetX),
+                (int) ((y1 + to * dy) * scale + offsetY));
+    }
+}
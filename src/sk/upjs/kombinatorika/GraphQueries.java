@@ -0,0 +1,412 @@
+package sk.upjs.kombinatorika;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Algorithms answering the queries of the {@link QueryService}: shortest path,
+ * minimum spanning tree, maximum flow and maximum weight matching. They only
+ * read the {@link IndexedGraph}, every query allocates its own working arrays,
+ * so any number of queries may run over the same graph at once. The results
+ * are returned as text.
+ *
+ * @author student
+ */
+final class GraphQueries {
+
+    private GraphQueries() {
+    }
+
+    /**
+     * Finds a shortest path between two vertices.
+     *
+     * @param graph the graph
+     * @param potential vertex potentials computed by
+     * {@link ShortestPaths#potentials} if the graph has negative weights, null
+     * otherwise
+     * @param from the start vertex
+     * @param to the end vertex
+     * @return length of the path and its vertices
+     */
+    static String shortestPath(IndexedGraph graph, double[] potential, int from,
+            int to) {
+        int[] predecessor = new int[graph.vertexCount()];
+        double[] distance = ShortestPaths.dijkstra(graph, from, potential,
+                predecessor);
+        if (distance[to] == Double.POSITIVE_INFINITY) {
+            return "Cesta z " + graph.label(from) + " do " + graph.label(to)
+                    + " neexistuje";
+        }
+
+        List<String> path = new ArrayList<>();
+        for (int v = to; v != -1; v = predecessor[v]) {
+            path.add(graph.label(v));
+        }
+        Collections.reverse(path);
+        return "Dĺžka cesty: " + distance[to] + "\n"
+                + "Cesta: " + join(path, graph.isDirected() ? "->" : "-");
+    }
+
+    /**
+     * Finds a minimum spanning tree (a spanning forest if the graph is not
+     * connected) with Kruskal's algorithm.
+     *
+     * @param graph an undirected graph
+     * @return total weight and list of edges of the tree
+     */
+    static String minimumSpanningTree(final IndexedGraph graph) {
+        if (graph.isDirected()) {
+            return "Graf je orientovaný, kostra sa hľadá len v neorientovanom grafe";
+        }
+        int[] edgeFrom = new int[graph.arcCount() / 2];
+        final int[] edgeArc = new int[edgeFrom.length];
+        int m = 0;
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                if (u < graph.target(arc)) {
+                    edgeFrom[m] = u;
+                    edgeArc[m] = arc;
+                    m++;
+                }
+            }
+        }
+        Integer[] order = new Integer[m];
+        for (int e = 0; e < m; e++) {
+            order[e] = e;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer e1, Integer e2) {
+                return Double.compare(graph.weight(edgeArc[e1]),
+                        graph.weight(edgeArc[e2]));
+            }
+        });
+
+        // union-find with path halving
+        int[] parent = new int[graph.vertexCount()];
+        for (int v = 0; v < parent.length; v++) {
+            parent[v] = v;
+        }
+        double total = 0;
+        int treeEdges = 0;
+        StringBuilder list = new StringBuilder();
+        for (int e : order) {
+            int a = find(parent, edgeFrom[e]);
+            int b = find(parent, graph.target(edgeArc[e]));
+            if (a == b) {
+                continue;
+            }
+            parent[a] = b;
+            total += graph.weight(edgeArc[e]);
+            treeEdges++;
+            list.append(graph.label(edgeFrom[e])).append('-')
+                    .append(graph.label(graph.target(edgeArc[e]))).append(": ")
+                    .append(graph.weight(edgeArc[e])).append(", ");
+        }
+
+        String result = "Cena kostry: " + total + "\n" + "Hrany kostry: " + list;
+        if (treeEdges < graph.vertexCount() - 1) {
+            result = "Graf nie je súvislý, výsledkom je najlacnejší kostrový les\n"
+                    + result;
+        }
+        return result;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Computes a maximum flow between two vertices with the Edmonds-Karp
+     * algorithm. Edge weights are used as capacities.
+     *
+     * @param graph the graph
+     * @param source the source of the flow
+     * @param sink the sink of the flow
+     * @return value of the maximum flow
+     */
+    static String maxFlow(IndexedGraph graph, int source, int sink) {
+        int n = graph.vertexCount();
+        int arcs = graph.arcCount();
+        // residual network: arc a of the graph is residual arc 2a, its reverse
+        // arc is 2a+1
+        int[] head = new int[2 * arcs];
+        int[] tail = new int[2 * arcs];
+        double[] capacity = new double[2 * arcs];
+        int[] degree = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                if (graph.weight(arc) < 0) {
+                    return "Graf obsahuje hranu so zápornou kapacitou";
+                }
+                int v = graph.target(arc);
+                tail[2 * arc] = u;
+                head[2 * arc] = v;
+                capacity[2 * arc] = graph.weight(arc);
+                tail[2 * arc + 1] = v;
+                head[2 * arc + 1] = u;
+                degree[u + 1]++;
+                degree[v + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            degree[v + 1] += degree[v];
+        }
+        int[] incident = new int[2 * arcs];
+        int[] next = Arrays.copyOf(degree, n);
+        for (int r = 0; r < 2 * arcs; r++) {
+            incident[next[tail[r]]++] = r;
+        }
+
+        double flow = 0;
+        int[] via = new int[n];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        while (true) {
+            // breadth-first search for a shortest augmenting path
+            Arrays.fill(via, -1);
+            queue.clear();
+            queue.add(source);
+            while (!queue.isEmpty() && via[sink] == -1) {
+                int u = queue.poll();
+                for (int i = degree[u]; i < degree[u + 1]; i++) {
+                    int r = incident[i];
+                    int v = head[r];
+                    if (capacity[r] > 0 && via[v] == -1 && v != source) {
+                        via[v] = r;
+                        queue.add(v);
+                    }
+                }
+            }
+            if (via[sink] == -1) {
+                break;
+            }
+            double bottleneck = Double.POSITIVE_INFINITY;
+            for (int v = sink; v != source; v = tail[via[v]]) {
+                bottleneck = Math.min(bottleneck, capacity[via[v]]);
+            }
+            for (int v = sink; v != source; v = tail[via[v]]) {
+                capacity[via[v]] -= bottleneck;
+                capacity[via[v] ^ 1] += bottleneck;
+            }
+            flow += bottleneck;
+        }
+        return "Veľkosť maximálneho toku z " + graph.label(source) + " do "
+                + graph.label(sink) + ": " + flow;
+    }
+
+    /**
+     * Finds a matching of maximum weight. Directions of edges are ignored and
+     * loops are skipped. For a bipartite graph the matching is found exactly by
+     * successive shortest augmenting paths; for other graphs the heaviest edges
+     * are taken greedily, which gives at least half of the maximum weight.
+     *
+     * @param graph the graph
+     * @return weight and edges of the matching
+     */
+    static String maxWeightMatching(IndexedGraph graph) {
+        int n = graph.vertexCount();
+        List<int[]> edges = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                int v = graph.target(arc);
+                // a loop cannot be in a matching
+                if (graph.weight(arc) > 0 && u != v
+                        && (graph.isDirected() || u < v)) {
+                    edges.add(new int[]{u, v, arc, edges.size()});
+                }
+            }
+        }
+
+        int[] side = bipartition(n, edges);
+        int[] mate;
+        String method;
+        if (side != null) {
+            mate = bipartiteMatching(graph, n, edges, side);
+            method = "presný (bipartitný graf)";
+        } else {
+            mate = greedyMatching(graph, n, edges);
+            method = "približný (graf nie je bipartitný)";
+        }
+
+        double total = 0;
+        StringBuilder list = new StringBuilder();
+        for (int[] edge : edges) {
+            if (mate[edge[0]] == edge[3] && mate[edge[1]] == edge[3]) {
+                total += graph.weight(edge[2]);
+                list.append(graph.label(edge[0])).append('-')
+                        .append(graph.label(edge[1])).append(": ")
+                        .append(graph.weight(edge[2])).append(", ");
+            }
+        }
+        return "Matching: " + method + "\n" + "Váha matchingu: " + total + "\n"
+                + "Hrany matchingu: " + list;
+    }
+
+    /**
+     * Colours vertices by two colours so that every edge joins vertices of
+     * different colours.
+     *
+     * @return colour 0 or 1 of every vertex, or null if the graph is not
+     * bipartite
+     */
+    private static int[] bipartition(int n, List<int[]> edges) {
+        List<List<Integer>> neighbours = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            neighbours.add(new ArrayList<Integer>());
+        }
+        for (int[] edge : edges) {
+            neighbours.get(edge[0]).add(edge[1]);
+            neighbours.get(edge[1]).add(edge[0]);
+        }
+        int[] side = new int[n];
+        Arrays.fill(side, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int start = 0; start < n; start++) {
+            if (side[start] != -1) {
+                continue;
+            }
+            side[start] = 0;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                for (int v : neighbours.get(u)) {
+                    if (side[v] == -1) {
+                        side[v] = 1 - side[u];
+                        queue.add(v);
+                    } else if (side[v] == side[u]) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return side;
+    }
+
+    /**
+     * Maximum weight matching of a bipartite graph as a minimum cost flow:
+     * the matching is enlarged along the cheapest augmenting path as long as
+     * the path increases its weight. In the residual graph an unmatched edge
+     * leads from the left to the right side with cost -w, a matched edge leads
+     * back with cost w; the cheapest paths from free left vertices are found
+     * by the Bellman-Ford algorithm.
+     *
+     * @return for every vertex the index of its matching edge in edges, -1
+     * if unmatched
+     */
+    private static int[] bipartiteMatching(IndexedGraph graph, int n,
+            List<int[]> edges, int[] side) {
+        int[] mate = new int[n];
+        Arrays.fill(mate, -1);
+        double[] distance = new double[n];
+        int[] via = new int[n];
+        int[] previous = new int[n];
+        while (true) {
+            Arrays.fill(distance, Double.POSITIVE_INFINITY);
+            Arrays.fill(via, -1);
+            for (int v = 0; v < n; v++) {
+                if (side[v] == 0 && mate[v] == -1) {
+                    distance[v] = 0;
+                }
+            }
+            boolean changed = true;
+            for (int round = 0; round < n && changed; round++) {
+                changed = false;
+                for (int e = 0; e < edges.size(); e++) {
+                    int[] edge = edges.get(e);
+                    int left = side[edge[0]] == 0 ? edge[0] : edge[1];
+                    int right = side[edge[0]] == 0 ? edge[1] : edge[0];
+                    double weight = graph.weight(edge[2]);
+                    if (mate[left] != e) {
+                        if (distance[left] - weight < distance[right]) {
+                            distance[right] = distance[left] - weight;
+                            via[right] = e;
+                            previous[right] = left;
+                            changed = true;
+                        }
+                    } else if (distance[right] + weight < distance[left]) {
+                        distance[left] = distance[right] + weight;
+                        via[left] = e;
+                        previous[left] = right;
+                        changed = true;
+                    }
+                }
+            }
+
+            int best = -1;
+            for (int v = 0; v < n; v++) {
+                if (side[v] == 1 && mate[v] == -1 && distance[v] < 0
+                        && (best == -1 || distance[v] < distance[best])) {
+                    best = v;
+                }
+            }
+            if (best == -1) {
+                return mate;
+            }
+
+            // the path alternates unmatched and matched edges and ends in
+            // free vertices, so flipping its edges keeps a matching
+            List<Integer> path = new ArrayList<>();
+            for (int v = best; via[v] != -1 && path.size() < n; v = previous[v]) {
+                path.add(via[v]);
+            }
+            for (int e : path) {
+                int[] edge = edges.get(e);
+                if (mate[edge[0]] == e) {
+                    mate[edge[0]] = -1;
+                    mate[edge[1]] = -1;
+                }
+            }
+            for (int i = 0; i < path.size(); i += 2) {
+                int[] edge = edges.get(path.get(i));
+                mate[edge[0]] = path.get(i);
+                mate[edge[1]] = path.get(i);
+            }
+        }
+    }
+
+    /**
+     * Takes edges from the heaviest one if both their end vertices are still
+     * unmatched.
+     *
+     * @return for every vertex the index of its matching edge in edges, -1
+     * if unmatched
+     */
+    private static int[] greedyMatching(final IndexedGraph graph, int n,
+            List<int[]> edges) {
+        List<int[]> sorted = new ArrayList<>(edges);
+        Collections.sort(sorted, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] e1, int[] e2) {
+                return Double.compare(graph.weight(e2[2]), graph.weight(e1[2]));
+            }
+        });
+        int[] mate = new int[n];
+        Arrays.fill(mate, -1);
+        for (int[] edge : sorted) {
+            if (mate[edge[0]] == -1 && mate[edge[1]] == -1) {
+                mate[edge[0]] = edge[3];
+                mate[edge[1]] = edge[3];
+            }
+        }
+        return mate;
+    }
+
+    private static String join(List<String> items, String separator) {
+        StringBuilder result = new StringBuilder();
+        for (String item : items) {
+            if (result.length() > 0) {
+                result.append(separator);
+            }
+            result.append(item);
+        }
+        return result.toString();
+    }
+}
@@ -1,6 +1,9 @@
 package sk.upjs.kombinatorika;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -34,6 +37,169 @@ public class GraphReader {
             return graph;
         }
 	
+        /**
+         * Reads graph from file directly into its compressed representation,
+         * without creating objects for vertices and edges. The file may
+         * contain an incidency matrix or a list of edges in the format of
+         * {@link Graph#loadFromFile(String)}; only the labels of vertices and
+         * weights of edges are kept. The file is read as by
+         * {@link #readGraphFromFile(String)}: a repeated edge gets the weight
+         * given last, a graph with a loop is not read, and the graph is
+         * undirected if every edge has its counterpart in the opposite
+         * direction with the same weight.
+         * @param filename path to the file with graph
+         * @return a compressed graph. Null if not successfull.
+         */
+        public CompressedGraph readCompressedGraphFromFile(String filename){
+            CompressedGraph graph = readCompressedMatrix(filename);
+            if(graph == null){
+                graph = readCompressedEdgeList(filename);
+                if(graph == null){
+                    return null;
+                }
+            }
+            if(graph.loopCount() > 0){
+                // Graph does not allow loops
+                System.err.println("Loops are not allowed.");
+                return null;
+            }
+
+            if(graph.isSymmetric()){
+                graph = graph.asUndirected();
+            }
+            return graph;
+        }
+
+        /**
+         * Reads an incidency matrix from file row by row directly into the
+         * compressed representation, without keeping the whole matrix.
+         * Vertices are numbered in the order in which
+         * {@link #readGraphFromIncidencyMatrix(String)} creates them, rows
+         * and columns without an edge do not belong to the graph.
+         * @param filename the path to file with incidency matrix
+         * @return directed compressed graph. Null if the file does not
+         * contain an incidency matrix.
+         */
+        private CompressedGraph readCompressedMatrix(String filename){
+            Scanner scanner = null;
+            try{
+                scanner = new Scanner(new File(filename));
+                int matrixLength = readMatrixSize(filename);
+                int[] index = new int[matrixLength];
+                Arrays.fill(index, -1);
+                CompressedGraph.Builder builder = new CompressedGraph.Builder(true);
+
+                Pattern pattern = Pattern.compile(",");
+                for (int i = 0; i < matrixLength; i++) {
+                    String line = scanner.nextLine();
+                    String[] incidencyValues = pattern.split(line);
+                    if(incidencyValues.length != matrixLength){
+                        throw new Exception("Error reading matrix on line " + i+1);
+                    }
+                    for (int j = 0; j < matrixLength; j++) {
+                        double value = Double.parseDouble(incidencyValues[j]);
+                        if(value != 0){
+                            if(index[i] == -1){
+                                index[i] = builder.addVertex(""+(i+1));
+                            }
+                            if(index[j] == -1){
+                                index[j] = builder.addVertex(""+(j+1));
+                            }
+                            builder.addEdge(index[i], index[j], value);
+                        }
+                    }
+                }
+                return builder.build();
+            }catch(Exception e){
+                System.err.println("Error parsing incidency matrix: " + e.getMessage());
+                return null;
+            }finally{
+                if(scanner != null){
+                    scanner.close();
+                }
+            }
+        }
+
+        /**
+         * Reads a list of edges from file. Every line contains either
+         * "from to : parameters" or "label : parameters"; the weight of an
+         * edge is the parameter which is not of the form key=value. Edges
+         * are passed to the builder as they are read.
+         * @param filename path to the file with list of edges
+         * @return directed compressed graph. Null if not successfull.
+         */
+        private CompressedGraph readCompressedEdgeList(String filename){
+            Map<String, Integer> indices = new HashMap<>();
+            CompressedGraph.Builder builder = new CompressedGraph.Builder(true);
+
+            Scanner scanner = null;
+            try{
+                scanner = new Scanner(new File(filename));
+                while(scanner.hasNextLine()){
+                    String line = scanner.nextLine();
+                    String definition = line;
+                    String info = null;
+                    int infoSeparatorPos = line.indexOf(":");
+                    if(infoSeparatorPos >= 0){
+                        definition = line.substring(0, infoSeparatorPos);
+                        info = line.substring(infoSeparatorPos + 1);
+                    }
+                    String[] ends = definition.trim().split("\\s+");
+                    if(ends[0].isEmpty()){
+                        continue;
+                    }
+                    int[] vertices = new int[Math.min(2, ends.length)];
+                    for (int k = 0; k < vertices.length; k++) {
+                        Integer index = indices.get(ends[k]);
+                        if(index == null){
+                            index = builder.addVertex(ends[k]);
+                            indices.put(ends[k], index);
+                        }
+                        vertices[k] = index;
+                    }
+                    if(vertices.length == 2){
+                        // a repeated edge without a weight keeps its weight
+                        Double weight = readWeight(info);
+                        if(weight == null){
+                            builder.addEdge(vertices[0], vertices[1]);
+                        }else{
+                            builder.addEdge(vertices[0], vertices[1], weight);
+                        }
+                    }
+                }
+            }catch(Exception e){
+                System.err.println("Error parsing list of edges: " + e.getMessage());
+                return null;
+            }finally{
+                if(scanner != null){
+                    scanner.close();
+                }
+            }
+            return builder.build();
+        }
+
+        /**
+         * Returns the weight of an edge from the list of its parameters.
+         * @param info parameters separated by ';', may be null
+         * @return the last parameter which is a number; null if there is none
+         */
+        private Double readWeight(String info){
+            Double weight = null;
+            if(info == null){
+                return weight;
+            }
+            for (String parameter : info.split(";")) {
+                if(parameter.indexOf('=') < 0){
+                    try{
+                        weight = Double.parseDouble(parameter);
+                    }catch(NumberFormatException e){
+                        // ignored as in Edge.readProperties
+                    }
+                }
+            }
+            return weight;
+        }
+
         /**
          * Creates graph from its incidency matrix stored in file.
          * @param filename the path to file with incidency matrix
@@ -46,10 +212,21 @@ public class GraphReader {
                 }
                 
 		Graph graph = new Graph();
+                // a vertex is created when its first edge is read, as only
+                // vertices with an edge belong to the graph; it is then kept
+                // here, since looking it up by label takes time proportional
+                // to the number of vertices
+                Vertex[] vertices = new Vertex[matrix.length];
 		for (int i = 0; i < matrix.length; i++) {
 			for (int j = 0; j < matrix.length; j++) {
 				if(matrix[i][j] != 0){
-                                    Edge edge =graph.addEdge(graph.getOrCreateVertex(""+(i+1)), graph.getOrCreateVertex(""+(j+1)));
+                                    if(vertices[i] == null){
+                                        vertices[i] = graph.addVertex(""+(i+1));
+                                    }
+                                    if(vertices[j] == null){
+                                        vertices[j] = graph.addVertex(""+(j+1));
+                                    }
+                                    Edge edge =graph.addEdge(vertices[i], vertices[j]);
                                     edge.setWeight(matrix[i][j]);
 				}
 			}
@@ -0,0 +1,462 @@
+package sk.upjs.kombinatorika;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Structural statistics of a graph: triangles, clustering coefficients and
+ * estimates of eccentricity and diameter. Directions of edges and loops are
+ * ignored, i.e. the statistics describe the underlying simple undirected
+ * graph.
+ *
+ * Triangles are counted exactly by intersecting sorted lists of neighbours in
+ * parallel, or estimated from a random sample of vertices for graphs too large
+ * for the exact computation. The diameter is estimated by repeated
+ * breadth-first searches, each starting from the farthest vertex found by the
+ * previous one.
+ *
+ * @author student
+ */
+class GraphStatistics {
+
+    /** Vertices processed by one parallel task */
+    private static final int GRAIN = 256;
+    /** Quantile of the normal distribution for 95 % confidence */
+    private static final double Z_95 = 1.96;
+    /**
+     * Pool shared by all computations, so that concurrent requests do not
+     * start threads of their own; its threads are daemons, it is never shut
+     * down
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool();
+
+    /** The underlying undirected graph, possibly with loops */
+    private final CompressedGraph graph;
+    private final int n;
+    /** Degrees without loops */
+    private final int[] degree;
+    private final int maxDegree;
+
+    /**
+     * Estimated value together with the half-width of its 95 % confidence
+     * interval.
+     */
+    static class Estimate {
+
+        final double value;
+        final double error;
+
+        Estimate(double value, double error) {
+            this.value = value;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Estimates of triangle statistics from a sample of vertices.
+     */
+    static class SampledTriangles {
+
+        final int sampleSize;
+        final Estimate triangles;
+        final Estimate globalClustering;
+        final Estimate averageLocalClustering;
+
+        SampledTriangles(int sampleSize, Estimate triangles,
+                Estimate globalClustering, Estimate averageLocalClustering) {
+            this.sampleSize = sampleSize;
+            this.triangles = triangles;
+            this.globalClustering = globalClustering;
+            this.averageLocalClustering = averageLocalClustering;
+        }
+    }
+
+    /**
+     * Bounds on the diameter of the component containing the start vertex.
+     */
+    static class DiameterEstimate {
+
+        final int start;
+        final int startEccentricity;
+        final int componentSize;
+        final int lowerBound;
+        final int upperBound;
+        /** Smallest eccentricity seen, an upper bound on the radius */
+        final int radiusUpperBound;
+
+        DiameterEstimate(int start, int startEccentricity, int componentSize,
+                int lowerBound, int upperBound, int radiusUpperBound) {
+            this.start = start;
+            this.startEccentricity = startEccentricity;
+            this.componentSize = componentSize;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.radiusUpperBound = radiusUpperBound;
+        }
+    }
+
+    /**
+     * Work on a range of vertices (or samples) done by one parallel task.
+     */
+    private interface RangeAction {
+
+        void run(int from, int to);
+    }
+
+    /**
+     * Splits a range in halves until it is small enough, so that idle threads
+     * of the pool can steal the remaining work.
+     */
+    private static class RangeTask extends RecursiveAction {
+
+        private final RangeAction action;
+        private final int from;
+        private final int to;
+
+        RangeTask(RangeAction action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                action.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(action, from, middle),
+                    new RangeTask(action, middle, to));
+        }
+    }
+
+    GraphStatistics(CompressedGraph graph) {
+        this.graph = graph.isDirected() ? undirected(graph) : graph;
+        this.n = graph.vertexCount();
+        degree = new int[n];
+        int max = 0;
+        CompressedGraph.Cursor cursor = this.graph.cursor();
+        for (int v = 0; v < n; v++) {
+            cursor.moveToOut(v);
+            while (cursor.hasNext()) {
+                if (cursor.next() != v) {
+                    degree[v]++;
+                }
+            }
+            max = Math.max(max, degree[v]);
+        }
+        maxDegree = max;
+    }
+
+    /**
+     * Returns the undirected graph with an edge for every pair of vertices
+     * joined by an edge in at least one direction.
+     */
+    private static CompressedGraph undirected(CompressedGraph graph) {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(
+                graph.vertexCount(), false);
+        CompressedGraph.Cursor cursor = graph.cursor();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            cursor.moveToOut(v);
+            while (cursor.hasNext()) {
+                builder.addEdge(v, cursor.next(), 1);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of paths of length two, i.e. pairs of edges with a
+     * common vertex.
+     */
+    double wedges() {
+        double wedges = 0;
+        for (int v = 0; v < n; v++) {
+            wedges += (double) degree[v] * (degree[v] - 1) / 2;
+        }
+        return wedges;
+    }
+
+    /**
+     * Counts the triangles at every vertex. Every edge is first oriented from
+     * its end vertex of lower rank to the one of higher rank (vertices are
+     * ranked by degree), so that no vertex has more than O(sqrt m) outgoing
+     * edges. Every triangle is then found once, from its vertex of the lowest
+     * rank u, by intersecting the sorted lists of outgoing edges of u and of
+     * its out-neighbour v, which takes O(m sqrt m) time in total.
+     *
+     * @return number of triangles containing each vertex
+     */
+    long[] trianglesPerVertex() {
+        final CompressedGraph oriented = orientByRank();
+        int maxOutDegree = 0;
+        for (int v = 0; v < n; v++) {
+            maxOutDegree = Math.max(maxOutDegree, oriented.outDegree(v));
+        }
+        final int bufferSize = maxOutDegree;
+        final AtomicLongArray triangles = new AtomicLongArray(n);
+        POOL.invoke(new RangeTask(new RangeAction() {
+            @Override
+            public void run(int from, int to) {
+                CompressedGraph.Cursor cursor = oriented.cursor();
+                int[] higher = new int[bufferSize];
+                for (int u = from; u < to; u++) {
+                    int count = 0;
+                    cursor.moveToOut(u);
+                    while (cursor.hasNext()) {
+                        higher[count++] = cursor.next();
+                    }
+                    for (int k = 0; k < count; k++) {
+                        int v = higher[k];
+                        // merge the sorted list of out-neighbours of u
+                        // with that of v
+                        int i = 0;
+                        cursor.moveToOut(v);
+                        while (cursor.hasNext() && i < count) {
+                            int w = cursor.next();
+                            while (i < count && higher[i] < w) {
+                                i++;
+                            }
+                            if (i < count && higher[i] == w) {
+                                triangles.incrementAndGet(u);
+                                triangles.incrementAndGet(v);
+                                triangles.incrementAndGet(w);
+                                i++;
+                            }
+                        }
+                    }
+                }
+            }
+        }, 0, n));
+
+        long[] result = new long[n];
+        for (int v = 0; v < n; v++) {
+            result[v] = triangles.get(v);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the directed graph with an edge from every vertex to each of its
+     * neighbours of higher rank. Loops are left out.
+     */
+    private CompressedGraph orientByRank() {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(n, true);
+        CompressedGraph.Cursor cursor = graph.cursor();
+        for (int u = 0; u < n; u++) {
+            cursor.moveToOut(u);
+            while (cursor.hasNext()) {
+                int w = cursor.next();
+                if (ranksAbove(w, u)) {
+                    builder.addEdge(u, w, 1);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the local clustering coefficient of every vertex: the fraction
+     * of pairs of its neighbours which are adjacent. Vertices with fewer than
+     * two neighbours have coefficient 0.
+     *
+     * @param trianglesPerVertex result of {@link #trianglesPerVertex}
+     * @return local clustering coefficients
+     */
+    double[] localClustering(long[] trianglesPerVertex) {
+        double[] clustering = new double[n];
+        for (int v = 0; v < n; v++) {
+            clustering[v] = localClustering(v, trianglesPerVertex[v]);
+        }
+        return clustering;
+    }
+
+    private double localClustering(int v, long triangles) {
+        if (degree[v] < 2) {
+            return 0;
+        }
+        return triangles / ((double) degree[v] * (degree[v] - 1) / 2);
+    }
+
+    /**
+     * Estimates triangle statistics from vertices chosen uniformly at random
+     * (with repetition). Triangles at a sampled vertex are counted exactly.
+     * The error of the number of triangles and of the global clustering
+     * coefficient comes from the normal approximation with the sample
+     * variance; the error of the average local clustering coefficient, whose
+     * values lie between 0 and 1, from Hoeffding's inequality.
+     *
+     * @param sampleSize number of sampled vertices
+     * @param random source of randomness
+     * @return the estimates
+     */
+    SampledTriangles sampleTriangles(int sampleSize, Random random) {
+        final int[] sample = new int[sampleSize];
+        for (int i = 0; i < sampleSize; i++) {
+            sample[i] = random.nextInt(n);
+        }
+        final long[] triangles = new long[sampleSize];
+        POOL.invoke(new RangeTask(new RangeAction() {
+            @Override
+            public void run(int from, int to) {
+                CompressedGraph.Cursor cursor = graph.cursor();
+                int[] neighbours = new int[maxDegree];
+                for (int i = from; i < to; i++) {
+                    triangles[i] = trianglesAt(sample[i], cursor, neighbours);
+                }
+            }
+        }, 0, sampleSize));
+
+        double sum = 0;
+        double sumSquares = 0;
+        double clusteringSum = 0;
+        for (int i = 0; i < sampleSize; i++) {
+            sum += triangles[i];
+            sumSquares += (double) triangles[i] * triangles[i];
+            clusteringSum += localClustering(sample[i], triangles[i]);
+        }
+        double mean = sum / sampleSize;
+        double variance = sampleSize > 1
+                ? (sumSquares - sampleSize * mean * mean) / (sampleSize - 1) : 0;
+        double standardError = Math.sqrt(Math.max(variance, 0) / sampleSize);
+
+        // every triangle is counted at its three vertices
+        Estimate triangleCount = new Estimate(n * mean / 3,
+                Z_95 * n * standardError / 3);
+        double wedges = wedges();
+        Estimate global = wedges == 0 ? new Estimate(0, 0)
+                : new Estimate(n * mean / wedges, Z_95 * n * standardError / wedges);
+        Estimate local = new Estimate(clusteringSum / sampleSize,
+                Math.sqrt(Math.log(2 / 0.05) / (2.0 * sampleSize)));
+        return new SampledTriangles(sampleSize, triangleCount, global, local);
+    }
+
+    /**
+     * Counts triangles containing the vertex by intersecting its list of
+     * neighbours with the list of each neighbour.
+     */
+    private long trianglesAt(int u, CompressedGraph.Cursor cursor,
+            int[] neighbours) {
+        int count = 0;
+        cursor.moveToOut(u);
+        while (cursor.hasNext()) {
+            int w = cursor.next();
+            if (w != u) {
+                neighbours[count++] = w;
+            }
+        }
+        long common = 0;
+        for (int k = 0; k < count; k++) {
+            int v = neighbours[k];
+            int i = 0;
+            cursor.moveToOut(v);
+            while (cursor.hasNext() && i < count) {
+                int w = cursor.next();
+                if (w == v || w == u) {
+                    // loops do not close triangles
+                    continue;
+                }
+                while (i < count && neighbours[i] < w) {
+                    i++;
+                }
+                if (i < count && neighbours[i] == w) {
+                    common++;
+                    i++;
+                }
+            }
+        }
+        // every triangle u-v-w is found from v and from w
+        return common / 2;
+    }
+
+    /**
+     * Estimates the diameter by breadth-first searches. The first search
+     * starts from a vertex of maximum degree, every next one from the farthest
+     * vertex found by the previous search. Every eccentricity found is a lower
+     * bound on the diameter, twice every eccentricity is an upper bound.
+     *
+     * @param sweeps number of searches after the first one
+     * @return bounds on the diameter of the component of the start vertex
+     */
+    DiameterEstimate estimateDiameter(int sweeps) {
+        if (n == 0) {
+            return new DiameterEstimate(-1, 0, 0, 0, 0, 0);
+        }
+        int start = 0;
+        for (int v = 1; v < n; v++) {
+            if (degree[v] > degree[start]) {
+                start = v;
+            }
+        }
+
+        int[] distance = new int[n];
+        int[] queue = new int[n];
+        int far = bfs(start, distance, queue);
+        int startEccentricity = distance[far];
+        int componentSize = 0;
+        for (int v = 0; v < n; v++) {
+            if (distance[v] >= 0) {
+                componentSize++;
+            }
+        }
+
+        int lower = startEccentricity;
+        int upper = 2 * startEccentricity;
+        int radius = startEccentricity;
+        for (int sweep = 0; sweep < sweeps && lower < upper; sweep++) {
+            int next = bfs(far, distance, queue);
+            int eccentricity = distance[next];
+            lower = Math.max(lower, eccentricity);
+            upper = Math.min(upper, 2 * eccentricity);
+            radius = Math.min(radius, eccentricity);
+            far = next;
+        }
+        return new DiameterEstimate(start, startEccentricity, componentSize,
+                lower, upper, radius);
+    }
+
+    /**
+     * Breadth-first search from the vertex.
+     *
+     * @param source the start vertex
+     * @param distance filled with numbers of edges from the source, -1 for
+     * unreachable vertices
+     * @param queue work array of length n
+     * @return the last vertex reached, one of those farthest from the source
+     */
+    private int bfs(int source, int[] distance, int[] queue) {
+        for (int v = 0; v < n; v++) {
+            distance[v] = -1;
+        }
+        CompressedGraph.Cursor cursor = graph.cursor();
+        int head = 0;
+        int tail = 0;
+        distance[source] = 0;
+        queue[tail++] = source;
+        int last = source;
+        while (head < tail) {
+            int u = queue[head++];
+            last = u;
+            cursor.moveToOut(u);
+            while (cursor.hasNext()) {
+                int v = cursor.next();
+                if (distance[v] == -1) {
+                    distance[v] = distance[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Tests if vertex a has higher rank than vertex b: higher degree, or the
+     * same degree and a higher number.
+     */
+    private boolean ranksAbove(int a, int b) {
+        return degree[a] > degree[b] || (degree[a] == degree[b] && a > b);
+    }
+}
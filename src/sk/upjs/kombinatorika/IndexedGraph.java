@@ -0,0 +1,185 @@
+package sk.upjs.kombinatorika;
+
+import java.util.HashMap;
+import java.util.Map;
+import sk.upjs.paz.Edge;
+import sk.upjs.paz.Graph;
+import sk.upjs.paz.Vertex;
+
+/**
+ * Read-only copy of a graph in which vertices are numbered 0..n-1 and the
+ * outgoing edges of every vertex are stored next to each other in arrays
+ * (compressed sparse row format). An undirected edge is stored in both
+ * directions. Algorithms iterate over it without hashing vertices by their
+ * labels.
+ *
+ * @author student
+ */
+class IndexedGraph {
+
+    private final String[] labels;
+    private final Map<String, Integer> indexByLabel = new HashMap<>();
+    private final boolean directed;
+    /** Outgoing edges of v are at positions offsets[v]..offsets[v+1]-1 */
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    /**
+     * Creates the indexed copy of the graph.
+     *
+     * @param graph the graph to copy
+     */
+    IndexedGraph(Graph graph) {
+        directed = graph.isDirected();
+        labels = new String[graph.getVertices().size()];
+        Map<Vertex, Integer> indices = numberVertices(graph, labels);
+        for (int v = 0; v < labels.length; v++) {
+            indexByLabel.put(labels[v], v);
+        }
+
+        int n = labels.length;
+        int[] sources = new int[graph.getEdges().size()];
+        int[] ends = new int[sources.length];
+        double[] edgeWeights = new double[sources.length];
+        offsets = new int[n + 1];
+        int e = 0;
+        for (Edge edge : graph.getEdges()) {
+            sources[e] = indices.get(edge.getSource());
+            ends[e] = indices.get(edge.getTarget());
+            edgeWeights[e] = edge.getWeight();
+            offsets[sources[e] + 1]++;
+            if (!directed) {
+                offsets[ends[e] + 1]++;
+            }
+            e++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        targets = new int[offsets[n]];
+        weights = new double[offsets[n]];
+        int[] next = new int[n];
+        System.arraycopy(offsets, 0, next, 0, n);
+        for (e = 0; e < sources.length; e++) {
+            int position = next[sources[e]]++;
+            targets[position] = ends[e];
+            weights[position] = edgeWeights[e];
+            if (!directed) {
+                position = next[ends[e]]++;
+                targets[position] = sources[e];
+                weights[position] = edgeWeights[e];
+            }
+        }
+    }
+
+    /**
+     * Numbers the vertices of the graph 0..n-1 in the order of
+     * {@link Graph#getVertices()}.
+     *
+     * @param graph the graph whose vertices are numbered
+     * @param labels array of length n, filled with the labels of vertices
+     * by their numbers
+     * @return the number of every vertex
+     */
+    static Map<Vertex, Integer> numberVertices(Graph graph, String[] labels) {
+        Map<Vertex, Integer> indices = new HashMap<>();
+        for (Vertex vertex : graph.getVertices()) {
+            labels[indices.size()] = vertex.getLabel();
+            indices.put(vertex, indices.size());
+        }
+        return indices;
+    }
+
+    /**
+     * Creates the indexed copy of a compressed graph. Vertices keep their
+     * numbers.
+     *
+     * @param graph the graph to copy
+     */
+    IndexedGraph(CompressedGraph graph) {
+        directed = graph.isDirected();
+        int n = graph.vertexCount();
+        labels = new String[n];
+        offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            labels[v] = graph.label(v);
+            indexByLabel.put(labels[v], v);
+            offsets[v + 1] = offsets[v] + graph.outDegree(v);
+        }
+
+        targets = new int[offsets[n]];
+        weights = new double[offsets[n]];
+        CompressedGraph.Cursor cursor = graph.cursor();
+        for (int v = 0; v < n; v++) {
+            cursor.moveToOut(v);
+            for (int position = offsets[v]; cursor.hasNext(); position++) {
+                targets[position] = cursor.next();
+                weights[position] = cursor.weight();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of vertices.
+     */
+    int vertexCount() {
+        return labels.length;
+    }
+
+    /**
+     * Returns the number of stored edge directions, i.e. twice the number of
+     * edges of an undirected graph.
+     */
+    int arcCount() {
+        return targets.length;
+    }
+
+    boolean isDirected() {
+        return directed;
+    }
+
+    String label(int v) {
+        return labels[v];
+    }
+
+    /**
+     * Returns the number of the vertex with the given label.
+     *
+     * @param label label of the vertex
+     * @return number of the vertex, or -1 if there is no such vertex
+     */
+    int indexOf(String label) {
+        Integer index = indexByLabel.get(label);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the position of the first outgoing edge of the vertex.
+     */
+    int firstArc(int v) {
+        return offsets[v];
+    }
+
+    /**
+     * Returns the position just behind the last outgoing edge of the vertex.
+     */
+    int endArc(int v) {
+        return offsets[v + 1];
+    }
+
+    /**
+     * Returns the end vertex of the edge at the given position.
+     */
+    int target(int arc) {
+        return targets[arc];
+    }
+
+    /**
+     * Returns the weight of the edge at the given position.
+     */
+    double weight(int arc) {
+        return weights[arc];
+    }
+}
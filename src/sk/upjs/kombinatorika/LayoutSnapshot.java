@@ -0,0 +1,207 @@
+package sk.upjs.kombinatorika;
+
+import java.util.Arrays;
+
+/**
+ * Immutable picture of vertex positions at one moment of the layout, together
+ * with the structures needed to draw it quickly: spatial grids for culling of
+ * vertices and edges and coarse levels of detail in which vertices falling
+ * into the same cell are drawn as one point and parallel edges between two
+ * cells as one line. A level keeps only the most heavily aggregated edges, so
+ * that it can be drawn in time independent of the number of edges.
+ *
+ * @author student
+ */
+class LayoutSnapshot {
+
+    /** Resolutions of the levels of detail, from the coarsest */
+    private static final int[] LEVEL_RESOLUTIONS = {16, 64, 256};
+    /** Largest number of aggregated edges kept in a level of detail */
+    private static final int MAX_LEVEL_EDGES = 20000;
+    /** Number of shades of aggregated edges */
+    static final int SHADES = 8;
+
+    final float[] x;
+    final float[] y;
+    final double minX;
+    final double minY;
+    final double maxX;
+    final double maxY;
+    final SpatialGrid grid;
+    final EdgeGrid edges;
+    final Level[] levels;
+
+    /**
+     * One level of detail. Cell c is drawn at (cellX[c], cellY[c]), the
+     * centroid of its vertices, and aggregated edge e connects cells
+     * edgeFrom[e] and edgeTo[e]. Aggregated edges are ordered by shade:
+     * edges shadeStart[s]..shadeStart[s+1]-1 stand for 2^s to 2^(s+1)-1
+     * edges each (the last shade for more).
+     */
+    static class Level {
+
+        final double cellSize;
+        final float[] cellX;
+        final float[] cellY;
+        final int[] cellCount;
+        final int[] edgeFrom;
+        final int[] edgeTo;
+        final int[] shadeStart;
+
+        private Level(double cellSize, float[] cellX, float[] cellY,
+                int[] cellCount, int[] edgeFrom, int[] edgeTo,
+                int[] shadeStart) {
+            this.cellSize = cellSize;
+            this.cellX = cellX;
+            this.cellY = cellY;
+            this.cellCount = cellCount;
+            this.edgeFrom = edgeFrom;
+            this.edgeTo = edgeTo;
+            this.shadeStart = shadeStart;
+        }
+    }
+
+    /**
+     * Creates the snapshot from a copy of the current positions.
+     *
+     * @param x x coordinates of vertices; the array is not copied
+     * @param y y coordinates of vertices; the array is not copied
+     * @param source sources of edges
+     * @param target targets of edges
+     */
+    LayoutSnapshot(float[] x, float[] y, int[] source, int[] target) {
+        this.x = x;
+        this.y = y;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < x.length; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        if (x.length == 0) {
+            minX = minY = 0;
+            maxX = maxY = 1;
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.grid = new SpatialGrid(x, y, minX, minY, maxX, maxY);
+        this.edges = new EdgeGrid(x, y, source, target, minX, minY, span());
+
+        levels = new Level[LEVEL_RESOLUTIONS.length];
+        for (int l = 0; l < levels.length; l++) {
+            levels[l] = buildLevel(LEVEL_RESOLUTIONS[l], source, target);
+        }
+    }
+
+    /**
+     * Returns the width or height of the layout, whichever is larger.
+     *
+     * @return size of the bounding square of the layout
+     */
+    double span() {
+        return Math.max(Math.max(maxX - minX, maxY - minY), 1e-6);
+    }
+
+    private Level buildLevel(int resolution, int[] source, int[] target) {
+        double cellSize = span() / resolution;
+        int cells = resolution * resolution;
+        int[] cellOf = new int[x.length];
+        int[] cellCount = new int[cells];
+        double[] sumX = new double[cells];
+        double[] sumY = new double[cells];
+        for (int i = 0; i < x.length; i++) {
+            int column = Math.min(resolution - 1, (int) ((x[i] - minX) / cellSize));
+            int row = Math.min(resolution - 1, (int) ((y[i] - minY) / cellSize));
+            int c = column + row * resolution;
+            cellOf[i] = c;
+            cellCount[c]++;
+            sumX[c] += x[i];
+            sumY[c] += y[i];
+        }
+        float[] cellX = new float[cells];
+        float[] cellY = new float[cells];
+        for (int c = 0; c < cells; c++) {
+            if (cellCount[c] > 0) {
+                cellX[c] = (float) (sumX[c] / cellCount[c]);
+                cellY[c] = (float) (sumY[c] / cellCount[c]);
+            }
+        }
+
+        // edges between the same pair of cells get the same key, so after
+        // sorting they form runs which are merged into one aggregated edge
+        long[] keys = new long[source.length];
+        int keyCount = 0;
+        for (int e = 0; e < source.length; e++) {
+            int a = cellOf[source[e]];
+            int b = cellOf[target[e]];
+            if (a != b) {
+                keys[keyCount++] = (long) Math.min(a, b) * cells + Math.max(a, b);
+            }
+        }
+        Arrays.sort(keys, 0, keyCount);
+        int runs = 0;
+        for (int k = 0; k < keyCount; k++) {
+            if (k == 0 || keys[k] != keys[k - 1]) {
+                runs++;
+            }
+        }
+        int[] runCount = new int[runs];
+        int run = -1;
+        for (int k = 0; k < keyCount; k++) {
+            if (k == 0 || keys[k] != keys[k - 1]) {
+                run++;
+            }
+            runCount[run]++;
+        }
+
+        // only the heaviest aggregated edges are kept: whole shades are
+        // dropped from the lightest one, the boundary shade is cut short
+        int[] shadeSize = new int[SHADES];
+        for (int r = 0; r < runs; r++) {
+            shadeSize[shade(runCount[r])]++;
+        }
+        int[] shadeStart = new int[SHADES + 1];
+        int[] keep = new int[SHADES];
+        int kept = 0;
+        for (int s = SHADES - 1; s >= 0; s--) {
+            keep[s] = Math.min(shadeSize[s], MAX_LEVEL_EDGES - kept);
+            kept += keep[s];
+        }
+        for (int s = 0; s < SHADES; s++) {
+            shadeStart[s + 1] = shadeStart[s] + keep[s];
+        }
+
+        int[] edgeFrom = new int[kept];
+        int[] edgeTo = new int[kept];
+        int[] next = Arrays.copyOf(shadeStart, SHADES);
+        run = -1;
+        for (int k = 0; k < keyCount; k++) {
+            if (k > 0 && keys[k] == keys[k - 1]) {
+                continue;
+            }
+            run++;
+            int s = shade(runCount[run]);
+            if (next[s] == shadeStart[s + 1]) {
+                continue;
+            }
+            int e = next[s]++;
+            edgeFrom[e] = (int) (keys[k] / cells);
+            edgeTo[e] = (int) (keys[k] % cells);
+        }
+
+        return new Level(cellSize, cellX, cellY, cellCount, edgeFrom, edgeTo,
+                shadeStart);
+    }
+
+    /**
+     * Returns the shade of an aggregated edge standing for count edges: the
+     * binary logarithm of count, at most SHADES - 1.
+     */
+    private static int shade(int count) {
+        return Math.min(SHADES - 1, 31 - Integer.numberOfLeadingZeros(count));
+    }
+}
@@ -0,0 +1,396 @@
+package sk.upjs.kombinatorika;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running local service answering queries about graphs kept loaded in
+ * memory, so that a graph does not have to be read from its file for every
+ * query. The service listens on HTTP on the loopback interface only. Every
+ * request is a GET with parameters in the query string and the answer is
+ * plain text in UTF-8:
+ * <ul>
+ * <li>/load?name=N&amp;file=F - reads graph from file F under name N; a graph
+ * of the same name is replaced</li>
+ * <li>/unload?name=N - forgets graph N</li>
+ * <li>/info?graph=N - basic information about the graph</li>
+ * <li>/path?graph=N&amp;from=A&amp;to=B - shortest path from A to B</li>
+ * <li>/mst?graph=N - minimum spanning tree</li>
+ * <li>/flow?graph=N&amp;source=A&amp;sink=B - maximum flow from A to B</li>
+ * <li>/matching?graph=N - maximum weight matching</li>
+ * <li>/stats?graph=N[&amp;sample=K] - extended information about the graph;
+ * with K smaller than the number of vertices, triangles and clustering are
+ * estimated from K sampled vertices</li>
+ * </ul>
+ *
+ * A loaded graph is an immutable {@link LoadedGraph}. Queries read it without
+ * any locking, except that the first query which needs the
+ * {@link IndexedGraph} builds it under the lock of the graph; loading a graph
+ * under an existing name only replaces the map entry, queries in progress
+ * finish on the previous version.
+ *
+ * @author student
+ */
+public class QueryService {
+
+    public static final int DEFAULT_PORT = 8765;
+
+    private final Map<String, LoadedGraph> graphs = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Copy of a graph with random access to its edges, needed by paths,
+     * flows, spanning trees and matchings.
+     */
+    static class Indexed {
+
+        final IndexedGraph graph;
+        /** Potentials for Dijkstra's algorithm, null if no weight is negative */
+        final double[] potential;
+        final boolean negativeCycle;
+
+        Indexed(CompressedGraph graph) {
+            this.graph = new IndexedGraph(graph);
+            if (graph.minWeight() < 0) {
+                this.potential = ShortestPaths.potentials(this.graph);
+                this.negativeCycle = potential == null;
+            } else {
+                this.potential = null;
+                this.negativeCycle = false;
+            }
+        }
+    }
+
+    /**
+     * Immutable graph prepared for queries. Only the compressed graph is
+     * kept from the start; the indexed copy is built by the first query which
+     * needs it. Answers which do not depend on parameters of the query are
+     * computed on the first request and then reused; if two requests compute
+     * one at the same time, both get the same text.
+     */
+    static class LoadedGraph {
+
+        final CompressedGraph graph;
+        final GraphInfo graphInfo;
+        private Indexed indexed;
+        private volatile String info;
+        private volatile String spanningTree;
+        private volatile String matching;
+        private volatile String statistics;
+        private volatile String degrees;
+        private volatile String diameter;
+
+        LoadedGraph(CompressedGraph graph) {
+            this.graph = graph;
+            this.graphInfo = new GraphInfo(graph);
+        }
+
+        synchronized Indexed indexed() {
+            if (indexed == null) {
+                indexed = new Indexed(graph);
+            }
+            return indexed;
+        }
+
+        String info() {
+            if (info == null) {
+                info = graphInfo.basicGraphInfo();
+            }
+            return info;
+        }
+
+        String spanningTree() {
+            if (spanningTree == null) {
+                spanningTree = GraphQueries.minimumSpanningTree(indexed().graph);
+            }
+            return spanningTree;
+        }
+
+        String matching() {
+            if (matching == null) {
+                matching = GraphQueries.maxWeightMatching(indexed().graph);
+            }
+            return matching;
+        }
+
+        String statistics() {
+            if (statistics == null) {
+                statistics = statistics(0);
+            }
+            return statistics;
+        }
+
+        /**
+         * Returns the extended information about the graph with triangle
+         * statistics estimated from the given number of vertices. The other
+         * parts of the report do not depend on the sample, so only the
+         * triangles are computed on every call.
+         *
+         * @param sampleSize number of sampled vertices; 0 for exact
+         * computation
+         * @return the same text as {@link GraphInfo#extendedGraphInfo(int)}
+         */
+        String statistics(int sampleSize) {
+            if (degrees == null) {
+                degrees = graphInfo.degreeInfo();
+            }
+            StringBuilder report = new StringBuilder(info()).append("\n")
+                    .append(degrees);
+            if (graph.vertexCount() > 0) {
+                if (diameter == null) {
+                    diameter = graphInfo.diameterInfo();
+                }
+                report.append("\n").append(graphInfo.triangleInfo(sampleSize))
+                        .append("\n").append(diameter);
+            }
+            return report.toString();
+        }
+    }
+
+    /**
+     * Error in a request, answered with the given HTTP status.
+     */
+    static class RequestException extends Exception {
+
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Starts the service on the loopback interface.
+     *
+     * @param port the port to listen on
+     * @throws IOException if the port cannot be opened
+     */
+    public synchronized void start(int port) throws IOException {
+        server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int status = 200;
+                String answer;
+                try {
+                    answer = answer(exchange.getRequestURI().getPath(),
+                            parseQuery(exchange.getRequestURI().getRawQuery()));
+                } catch (RequestException e) {
+                    status = e.status;
+                    answer = e.getMessage();
+                } catch (RuntimeException | Error e) {
+                    // the exchange is completed even if the computation ran
+                    // out of memory, so that the client is not left waiting
+                    status = 500;
+                    answer = "Chyba pri spracovaní požiadavky: " + e;
+                }
+                byte[] body = (answer + "\n").getBytes("UTF-8");
+                exchange.getResponseHeaders().set("Content-Type",
+                        "text/plain; charset=UTF-8");
+                exchange.sendResponseHeaders(status, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        executor = createExecutor();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Stops the service.
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdown();
+            server = null;
+        }
+    }
+
+    /**
+     * Loads a graph from file and makes it available under the given name.
+     * The graph is read directly into its compressed representation, so that
+     * no objects are created for its vertices and edges.
+     *
+     * @param name name of the graph used in queries
+     * @param filename path to the file with the graph
+     * @return true if the graph was loaded; false otherwise
+     */
+    public boolean load(String name, String filename) {
+        CompressedGraph graph = new GraphReader()
+                .readCompressedGraphFromFile(filename);
+        if (graph == null) {
+            return false;
+        }
+        graphs.put(name, new LoadedGraph(graph));
+        return true;
+    }
+
+    /**
+     * Returns the answer to a request.
+     *
+     * @param command path of the request
+     * @param parameters parameters of the request
+     * @return text of the answer
+     * @throws RequestException if the request is not valid
+     */
+    String answer(String command, Map<String, String> parameters)
+            throws RequestException {
+        switch (command) {
+            case "/load":
+                if (!load(parameter(parameters, "name"),
+                        parameter(parameters, "file"))) {
+                    throw new RequestException(400, "Graf sa nepodarilo načítať!");
+                }
+                return "Graf " + parameters.get("name") + " bol načítaný";
+            case "/unload":
+                if (graphs.remove(parameter(parameters, "name")) == null) {
+                    throw new RequestException(404, "Graf "
+                            + parameters.get("name") + " nie je načítaný");
+                }
+                return "Graf " + parameters.get("name") + " bol odstránený";
+            case "/info":
+                return graph(parameters).info();
+            case "/path": {
+                Indexed indexed = graph(parameters).indexed();
+                if (indexed.negativeCycle) {
+                    return "Graf obsahuje cyklus zápornej dĺžky, vzdialenosti nie sú definované.";
+                }
+                return GraphQueries.shortestPath(indexed.graph, indexed.potential,
+                        vertex(indexed, parameters, "from"),
+                        vertex(indexed, parameters, "to"));
+            }
+            case "/mst":
+                return graph(parameters).spanningTree();
+            case "/flow": {
+                Indexed indexed = graph(parameters).indexed();
+                return GraphQueries.maxFlow(indexed.graph,
+                        vertex(indexed, parameters, "source"),
+                        vertex(indexed, parameters, "sink"));
+            }
+            case "/matching":
+                return graph(parameters).matching();
+            case "/stats": {
+                LoadedGraph loaded = graph(parameters);
+                String sample = parameters.get("sample");
+                if (sample == null) {
+                    return loaded.statistics();
+                }
+                int sampleSize;
+                try {
+                    sampleSize = Integer.parseInt(sample);
+                } catch (NumberFormatException e) {
+                    sampleSize = 0;
+                }
+                if (sampleSize <= 0) {
+                    throw new RequestException(400,
+                            "Parameter sample musí byť kladné celé číslo");
+                }
+                if (sampleSize >= loaded.graph.vertexCount()) {
+                    // such a sample would be computed exactly anyway
+                    return loaded.statistics();
+                }
+                return loaded.statistics(sampleSize);
+            }
+            default:
+                throw new RequestException(404, "Neznáma požiadavka: " + command);
+        }
+    }
+
+    private LoadedGraph graph(Map<String, String> parameters)
+            throws RequestException {
+        String name = parameter(parameters, "graph");
+        LoadedGraph loaded = graphs.get(name);
+        if (loaded == null) {
+            throw new RequestException(404, "Graf " + name + " nie je načítaný");
+        }
+        return loaded;
+    }
+
+    private int vertex(Indexed indexed, Map<String, String> parameters,
+            String name) throws RequestException {
+        String label = parameter(parameters, name);
+        int vertex = indexed.graph.indexOf(label);
+        if (vertex == -1) {
+            throw new RequestException(404, "Vrchol " + label + " v grafe neexistuje");
+        }
+        return vertex;
+    }
+
+    private static String parameter(Map<String, String> parameters, String name)
+            throws RequestException {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new RequestException(400, "Chýba parameter " + name);
+        }
+        return value;
+    }
+
+    private static Map<String, String> parseQuery(String query)
+            throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, separator), "UTF-8"),
+                        URLDecoder.decode(pair.substring(separator + 1), "UTF-8"));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Returns an executor starting a virtual thread for every request if the
+     * Java runtime has them, a pool of ordinary threads otherwise.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Starts the service. Arguments are the port (optional, first) followed by
+     * graphs to load in the form name=file.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String args[]) throws IOException {
+        int port = DEFAULT_PORT;
+        QueryService service = new QueryService();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                port = Integer.parseInt(arg);
+            } else if (!service.load(arg.substring(0, separator),
+                    arg.substring(separator + 1))) {
+                System.err.println("Graf sa nepodarilo načítať: " + arg);
+            }
+        }
+        service.start(port);
+        System.out.println("Služba beží na http://localhost:" + port + "/");
+    }
+}
@@ -0,0 +1,144 @@
+package sk.upjs.kombinatorika;
+
+import java.util.Arrays;
+
+/**
+ * Single-source shortest path algorithms over an {@link IndexedGraph}. The
+ * methods only read the graph, so they may run in several threads at once.
+ *
+ * @author student
+ */
+final class ShortestPaths {
+
+    private ShortestPaths() {
+    }
+
+    /**
+     * Computes distances from the source with Dijkstra's algorithm. If
+     * potential is not null, edge u-v is used with weight
+     * w + potential[u] - potential[v], which is non-negative, and the
+     * distances are converted back to the original weights at the end.
+     *
+     * @param graph the graph
+     * @param source the start vertex
+     * @param potential vertex potentials from {@link #potentials}, or null if
+     * all weights are non-negative
+     * @param predecessor if not null, filled with the previous vertex on a
+     * shortest path to every vertex, -1 for the source and unreachable
+     * vertices
+     * @return distances from the source to all vertices
+     */
+    static double[] dijkstra(IndexedGraph graph, int source, double[] potential,
+            int[] predecessor) {
+        int n = graph.vertexCount();
+        double[] distance = new double[n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        if (predecessor != null) {
+            Arrays.fill(predecessor, -1);
+        }
+        boolean[] finished = new boolean[n];
+
+        // binary heap of (distance, vertex) pairs; a vertex may be in the
+        // heap several times, outdated pairs are skipped when removed
+        double[] heapKey = new double[16];
+        int[] heapVertex = new int[16];
+        int heapSize;
+
+        distance[source] = 0;
+        heapKey[0] = 0;
+        heapVertex[0] = source;
+        heapSize = 1;
+
+        while (heapSize > 0) {
+            int u = heapVertex[0];
+            heapSize--;
+            double lastKey = heapKey[heapSize];
+            int lastVertex = heapVertex[heapSize];
+            int hole = 0;
+            while (2 * hole + 1 < heapSize) {
+                int child = 2 * hole + 1;
+                if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child]) {
+                    child++;
+                }
+                if (heapKey[child] >= lastKey) {
+                    break;
+                }
+                heapKey[hole] = heapKey[child];
+                heapVertex[hole] = heapVertex[child];
+                hole = child;
+            }
+            heapKey[hole] = lastKey;
+            heapVertex[hole] = lastVertex;
+
+            if (finished[u]) {
+                continue;
+            }
+            finished[u] = true;
+
+            for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                int v = graph.target(arc);
+                double weight = graph.weight(arc);
+                if (potential != null) {
+                    weight += potential[u] - potential[v];
+                }
+                double candidate = distance[u] + weight;
+                if (!finished[v] && candidate < distance[v]) {
+                    distance[v] = candidate;
+                    if (predecessor != null) {
+                        predecessor[v] = u;
+                    }
+                    if (heapSize == heapKey.length) {
+                        heapKey = Arrays.copyOf(heapKey, 2 * heapSize);
+                        heapVertex = Arrays.copyOf(heapVertex, 2 * heapSize);
+                    }
+                    hole = heapSize++;
+                    while (hole > 0 && heapKey[(hole - 1) / 2] > candidate) {
+                        heapKey[hole] = heapKey[(hole - 1) / 2];
+                        heapVertex[hole] = heapVertex[(hole - 1) / 2];
+                        hole = (hole - 1) / 2;
+                    }
+                    heapKey[hole] = candidate;
+                    heapVertex[hole] = v;
+                }
+            }
+        }
+
+        if (potential != null) {
+            for (int v = 0; v < n; v++) {
+                distance[v] += potential[v] - potential[source];
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Computes vertex potentials with the Bellman-Ford algorithm as distances
+     * from a new vertex joined to all vertices by edges of weight 0. With these
+     * potentials every edge gets a non-negative weight in
+     * {@link #dijkstra}.
+     *
+     * @param graph the graph
+     * @return potentials of vertices, or null if the graph contains a cycle of
+     * negative weight
+     */
+    static double[] potentials(IndexedGraph graph) {
+        int n = graph.vertexCount();
+        double[] potential = new double[n];
+        for (int round = 0; round <= n; round++) {
+            boolean changed = false;
+            for (int u = 0; u < n; u++) {
+                for (int arc = graph.firstArc(u); arc < graph.endArc(u); arc++) {
+                    int v = graph.target(arc);
+                    if (potential[u] + graph.weight(arc) < potential[v]) {
+                        potential[v] = potential[u] + graph.weight(arc);
+                        changed = true;
+                    }
+                }
+            }
+            if (!changed) {
+                return potential;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+package sk.upjs.kombinatorika;
+
+/**
+ * Uniform grid over vertex positions. Vertices are bucketed by the cell they
+ * lie in, so the vertices inside a rectangle can be found by visiting only
+ * the cells overlapping it. The grid is immutable once built.
+ *
+ * @author student
+ */
+class SpatialGrid {
+
+    private final double minX;
+    private final double minY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    /** cellStart[c]..cellStart[c+1]-1 are positions of cell c in items */
+    private final int[] cellStart;
+    private final int[] items;
+
+    /**
+     * Builds the grid so that a cell holds a few vertices on average.
+     *
+     * @param x x coordinates of vertices
+     * @param y y coordinates of vertices
+     * @param minX minimum of x coordinates
+     * @param minY minimum of y coordinates
+     * @param maxX maximum of x coordinates
+     * @param maxY maximum of y coordinates
+     */
+    SpatialGrid(float[] x, float[] y, double minX, double minY, double maxX,
+            double maxY) {
+        int n = x.length;
+        double width = Math.max(maxX - minX, 1e-6);
+        double height = Math.max(maxY - minY, 1e-6);
+        int cells = Math.max(1, n / 4);
+        this.cellSize = Math.sqrt(width * height / cells) + 1e-9;
+        this.minX = minX;
+        this.minY = minY;
+        this.columns = Math.min(4096, (int) (width / cellSize) + 1);
+        this.rows = Math.min(4096, (int) (height / cellSize) + 1);
+
+        // counting sort of vertices by their cell
+        cellStart = new int[columns * rows + 1];
+        int[] cellOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            cellOf[i] = column(x[i]) + row(y[i]) * columns;
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        items = new int[n];
+        int[] next = new int[columns * rows];
+        System.arraycopy(cellStart, 0, next, 0, next.length);
+        for (int i = 0; i < n; i++) {
+            items[next[cellOf[i]]++] = i;
+        }
+    }
+
+    /**
+     * Returns the column of the cell containing the x coordinate, clamped to
+     * the grid.
+     */
+    int column(double x) {
+        int c = (int) ((x - minX) / cellSize);
+        return Math.max(0, Math.min(columns - 1, c));
+    }
+
+    /**
+     * Returns the row of the cell containing the y coordinate, clamped to the
+     * grid.
+     */
+    int row(double y) {
+        int r = (int) ((y - minY) / cellSize);
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+
+    /**
+     * Returns the first position in {@link #item} of vertices of the cell.
+     */
+    int cellStart(int column, int row) {
+        return cellStart[column + row * columns];
+    }
+
+    /**
+     * Returns the position in {@link #item} just behind the vertices of the
+     * cell.
+     */
+    int cellEnd(int column, int row) {
+        return cellStart[column + row * columns + 1];
+    }
+
+    /**
+     * Returns the vertex stored at the given position.
+     */
+    int item(int position) {
+        return items[position];
+    }
+}
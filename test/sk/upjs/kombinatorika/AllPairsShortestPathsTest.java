@@ -0,0 +1,116 @@
+package sk.upjs.kombinatorika;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.Test;
+import sk.upjs.paz.Graph;
+import sk.upjs.paz.Vertex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that Floyd's and Johnson's algorithms write the same distances.
+ *
+ * @author student
+ */
+public class AllPairsShortestPathsTest {
+
+    /**
+     * Creates a random graph with integer weights. Weights of a directed
+     * graph are shifted by vertex potentials, so that some of them are
+     * negative but no cycle is.
+     */
+    private static Graph randomGraph(Random random, int n, int m,
+            boolean directed) {
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[n];
+        int[] potential = new int[n];
+        for (int v = 0; v < n; v++) {
+            vertices[v] = graph.addVertex("v" + v);
+            potential[v] = random.nextInt(10);
+        }
+        for (int e = 0; e < m; e++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            if (u == v || graph.hasEdge(vertices[u], vertices[v])
+                    || graph.hasEdge(vertices[v], vertices[u])) {
+                continue;
+            }
+            int weight = 1 + random.nextInt(20);
+            if (directed) {
+                weight += potential[u] - potential[v];
+            }
+            graph.addEdge(vertices[u], vertices[v]).setWeight(weight);
+        }
+        graph.setDirected(directed);
+        return graph;
+    }
+
+    private static String distances(Graph graph,
+            AllPairsShortestPaths.Method method) throws IOException {
+        File file = File.createTempFile("distances", ".csv");
+        file.deleteOnExit();
+        assertTrue(new AllPairsShortestPaths(graph).writeDistances(
+                file.getPath(), method));
+        return new String(Files.readAllBytes(file.toPath()),
+                Charset.forName("UTF-8"));
+    }
+
+    @Test
+    public void johnsonAgreesWithFloyd() throws IOException {
+        Random random = new Random(1);
+        for (int round = 0; round < 40; round++) {
+            int n = 1 + random.nextInt(40);
+            Graph graph = randomGraph(random, n, random.nextInt(3 * n),
+                    round % 2 == 0);
+            assertEquals(distances(graph, AllPairsShortestPaths.Method.FLOYD),
+                    distances(graph, AllPairsShortestPaths.Method.JOHNSON));
+        }
+    }
+
+    @Test
+    public void negativeCycle() throws IOException {
+        Graph graph = new Graph();
+        Vertex a = graph.addVertex("a");
+        Vertex b = graph.addVertex("b");
+        Vertex c = graph.addVertex("c");
+        graph.addEdge(a, b).setWeight(2);
+        graph.addEdge(b, c).setWeight(-4);
+        graph.addEdge(c, a).setWeight(1);
+        File file = File.createTempFile("distances", ".csv");
+        file.deleteOnExit();
+        AllPairsShortestPaths apsp = new AllPairsShortestPaths(graph);
+        assertFalse(apsp.writeDistances(file.getPath(),
+                AllPairsShortestPaths.Method.FLOYD));
+        assertFalse(apsp.writeDistances(file.getPath(),
+                AllPairsShortestPaths.Method.JOHNSON));
+    }
+
+    @Test
+    public void unreachableVertices() throws IOException {
+        Graph graph = new Graph();
+        Vertex a = graph.addVertex("a");
+        Vertex b = graph.addVertex("b");
+        graph.addEdge(a, b).setWeight(3);
+        String floyd = distances(graph, AllPairsShortestPaths.Method.FLOYD);
+        assertEquals(floyd, distances(graph, AllPairsShortestPaths.Method.JOHNSON));
+        assertTrue(floyd, floyd.contains("Infinity"));
+    }
+
+    @Test
+    public void matrixMustFitInHeap() {
+        // 1000 rows of 1000 doubles take about 8 MB
+        assertTrue(AllPairsShortestPaths.matrixFits(1000, 64L << 20));
+        assertFalse(AllPairsShortestPaths.matrixFits(1000, 8L << 20));
+        // 100000 rows take 80 GB
+        assertFalse(AllPairsShortestPaths.matrixFits(100000, 32L << 30));
+        // the size of the largest matrix does not fit in a long
+        assertFalse(AllPairsShortestPaths.matrixFits(Integer.MAX_VALUE,
+                Long.MAX_VALUE));
+        assertTrue(AllPairsShortestPaths.matrixFits(0, 0));
+    }
+}
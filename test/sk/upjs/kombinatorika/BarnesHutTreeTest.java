@@ -0,0 +1,124 @@
+package sk.upjs.kombinatorika;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests forces computed by {@link BarnesHutTree} against the exact sum over
+ * all pairs of vertices.
+ *
+ * @author student
+ */
+public class BarnesHutTreeTest {
+
+    /**
+     * Returns the exact repulsion k2 / distance of all other vertices acting
+     * on vertex i.
+     */
+    private static double[] exactRepulsion(double[] x, double[] y, int i,
+            double k2) {
+        double[] force = new double[2];
+        for (int j = 0; j < x.length; j++) {
+            if (j != i) {
+                double dx = x[i] - x[j];
+                double dy = y[i] - y[j];
+                double f = k2 / (dx * dx + dy * dy);
+                force[0] += dx * f;
+                force[1] += dy * f;
+            }
+        }
+        return force;
+    }
+
+    private static double[] repulsion(BarnesHutTree tree, double[] x,
+            double[] y, int i, double theta, double k2) {
+        double[] force = new double[2];
+        tree.repulsion(i, x[i], y[i], theta, k2, new int[tree.stackSize()], force);
+        return force;
+    }
+
+    private static BarnesHutTree randomTree(Random random, double[] x,
+            double[] y) {
+        for (int i = 0; i < x.length; i++) {
+            x[i] = random.nextGaussian() * 50;
+            y[i] = random.nextGaussian() * 20 + random.nextInt(3) * 100;
+        }
+        BarnesHutTree tree = new BarnesHutTree();
+        tree.build(x, y, x.length);
+        return tree;
+    }
+
+    @Test
+    public void exactWithoutApproximation() {
+        Random random = new Random(1);
+        for (int n : new int[]{1, 2, 3, 50, 2000}) {
+            double[] x = new double[n];
+            double[] y = new double[n];
+            BarnesHutTree tree = randomTree(random, x, y);
+            for (int i = 0; i < n; i++) {
+                double[] exact = exactRepulsion(x, y, i, 2);
+                double[] force = repulsion(tree, x, y, i, 0, 2);
+                double tolerance = 1e-9 * (Math.abs(exact[0]) + Math.abs(exact[1]) + 1);
+                assertEquals(exact[0], force[0], tolerance);
+                assertEquals(exact[1], force[1], tolerance);
+            }
+        }
+    }
+
+    @Test
+    public void approximationIsClose() {
+        Random random = new Random(2);
+        int n = 5000;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        BarnesHutTree tree = randomTree(random, x, y);
+        double error = 0;
+        double total = 0;
+        for (int i = 0; i < n; i += 7) {
+            double[] exact = exactRepulsion(x, y, i, 1);
+            double[] force = repulsion(tree, x, y, i, 0.5, 1);
+            error += Math.hypot(exact[0] - force[0], exact[1] - force[1]);
+            total += Math.hypot(exact[0], exact[1]);
+        }
+        // the relative error of the approximation grows with theta
+        assertTrue("relative error " + error / total, error < 0.02 * total);
+    }
+
+    @Test
+    public void treeIsRebuilt() {
+        Random random = new Random(3);
+        BarnesHutTree tree = new BarnesHutTree();
+        for (int n : new int[]{1000, 10, 300}) {
+            double[] x = new double[n];
+            double[] y = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = random.nextDouble() * 10;
+                y[i] = random.nextDouble() * 10;
+            }
+            tree.build(x, y, n);
+            double[] exact = exactRepulsion(x, y, n - 1, 1);
+            double[] force = repulsion(tree, x, y, n - 1, 0, 1);
+            assertEquals(exact[0], force[0], 1e-9 * Math.abs(exact[0]) + 1e-9);
+            assertEquals(exact[1], force[1], 1e-9 * Math.abs(exact[1]) + 1e-9);
+        }
+    }
+
+    @Test
+    public void coincidentVerticesArePushedApart() {
+        double[] x = {1, 1, 1, 5};
+        double[] y = {2, 2, 2, 2};
+        BarnesHutTree tree = new BarnesHutTree();
+        tree.build(x, y, x.length);
+        for (int i = 0; i < 3; i++) {
+            double[] force = repulsion(tree, x, y, i, 0.9, 1);
+            assertFalse(Double.isNaN(force[0]) || Double.isNaN(force[1]));
+            assertTrue(Math.hypot(force[0], force[1]) > 1);
+        }
+        double[] lone = repulsion(tree, x, y, 3, 0.9, 1);
+        assertEquals(3 / 4.0, lone[0], 1e-12);
+        assertEquals(0, lone[1], 1e-12);
+    }
+}
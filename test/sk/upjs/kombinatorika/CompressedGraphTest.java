@@ -0,0 +1,200 @@
+package sk.upjs.kombinatorika;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that {@link CompressedGraph} returns the edges it was built from.
+ *
+ * @author student
+ */
+public class CompressedGraphTest {
+
+    private static final double DELTA = 0;
+
+    private static int[] outNeighbours(CompressedGraph graph, int v) {
+        int[] neighbours = new int[graph.outDegree(v)];
+        CompressedGraph.Cursor cursor = graph.cursor();
+        cursor.moveToOut(v);
+        for (int i = 0; i < neighbours.length; i++) {
+            assertTrue(cursor.hasNext());
+            neighbours[i] = cursor.next();
+        }
+        assertFalse(cursor.hasNext());
+        return neighbours;
+    }
+
+    /**
+     * Builds a star from vertex 0 with the given weights of edges to vertices
+     * 1, 2, ...
+     */
+    private static CompressedGraph star(double[] weights) {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(
+                weights.length + 1, true);
+        for (int v = 1; v <= weights.length; v++) {
+            builder.addEdge(0, v, weights[v - 1]);
+        }
+        return builder.build();
+    }
+
+    private static void assertWeights(double[] weights, CompressedGraph graph) {
+        CompressedGraph.Cursor cursor = graph.cursor();
+        cursor.moveToOut(0);
+        for (int v = 1; v <= weights.length; v++) {
+            assertEquals(v, cursor.next());
+            assertEquals(weights[v - 1], cursor.weight(), DELTA);
+        }
+    }
+
+    @Test
+    public void neighboursBeforeTheVertex() {
+        // the first neighbour is before the vertex, so its distance from
+        // the vertex is negative
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(100, true);
+        int[] neighbours = {0, 3, 49, 51, 99};
+        for (int i = neighbours.length - 1; i >= 0; i--) {
+            builder.addEdge(50, neighbours[i], i + 1);
+        }
+        builder.addEdge(99, 0, 1);
+        CompressedGraph graph = builder.build();
+        assertArrayEquals(neighbours, outNeighbours(graph, 50));
+        assertArrayEquals(new int[]{0}, outNeighbours(graph, 99));
+        assertArrayEquals(new int[0], outNeighbours(graph, 0));
+    }
+
+    @Test
+    public void varintBoundaries() {
+        // gaps 127, 128, 16383 and 16384 take one, two, two and three bytes
+        int[] gaps = {127, 128, 16383, 16384, 2097151, 2097152};
+        int[] neighbours = new int[gaps.length + 1];
+        neighbours[0] = 1;
+        for (int i = 0; i < gaps.length; i++) {
+            neighbours[i + 1] = neighbours[i] + gaps[i] + 1;
+        }
+        int n = neighbours[gaps.length] + 1;
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(n, false);
+        for (int neighbour : neighbours) {
+            builder.addEdge(0, neighbour, 1);
+        }
+        CompressedGraph graph = builder.build();
+        assertArrayEquals(neighbours, outNeighbours(graph, 0));
+        // the first neighbour of every other vertex is vertex 0, far before it
+        for (int neighbour : neighbours) {
+            assertArrayEquals(new int[]{0}, outNeighbours(graph, neighbour));
+        }
+    }
+
+    @Test
+    public void equalWeights() {
+        double[] weights = {2.5, 2.5, 2.5};
+        CompressedGraph graph = star(weights);
+        assertWeights(weights, graph);
+        assertEquals(2.5, graph.minWeight(), DELTA);
+        assertEquals(2.5, graph.maxWeight(), DELTA);
+    }
+
+    @Test
+    public void dictionaryOfWeights() {
+        // one byte codes up to 256 distinct weights, two bytes above
+        for (int distinct : new int[]{2, 256, 257, 65536}) {
+            double[] weights = new double[2 * distinct];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = -distinct + (i * 7 % distinct) / 3.0;
+            }
+            assertWeights(weights, star(weights));
+        }
+    }
+
+    @Test
+    public void storedWeights() {
+        int m = 70000;
+        double[] floats = new double[m];
+        double[] doubles = new double[m];
+        for (int i = 0; i < m; i++) {
+            floats[i] = i + 0.5;
+            doubles[i] = i + 0.1;
+        }
+        CompressedGraph floatGraph = star(floats);
+        CompressedGraph doubleGraph = star(doubles);
+        assertWeights(floats, floatGraph);
+        assertWeights(doubles, doubleGraph);
+        assertEquals(0.1, doubleGraph.minWeight(), DELTA);
+        assertEquals(m - 1 + 0.1, doubleGraph.maxWeight(), DELTA);
+        // weights exactly representable by floats take four bytes, others
+        // eight; both graphs have the same lists of neighbours, stored twice
+        // as they are directed
+        assertEquals(2 * 4L * m, doubleGraph.sizeInBytes() - floatGraph.sizeInBytes());
+    }
+
+    @Test
+    public void incomingNeighbours() {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(4, true);
+        builder.addEdge(0, 2, 1);
+        builder.addEdge(1, 2, 2);
+        builder.addEdge(3, 2, 3);
+        builder.addEdge(2, 0, 4);
+        CompressedGraph graph = builder.build();
+        assertEquals(3, graph.inDegree(2));
+        assertEquals(1, graph.outDegree(2));
+        CompressedGraph.Cursor cursor = graph.cursor();
+        cursor.moveToIn(2);
+        for (int v : new int[]{0, 1, 3}) {
+            assertEquals(v, cursor.next());
+            assertEquals(v == 3 ? 3 : v + 1, cursor.weight(), DELTA);
+        }
+        assertFalse(cursor.hasNext());
+        assertEquals(4, graph.edgeCount());
+        assertFalse(graph.isSymmetric());
+    }
+
+    @Test
+    public void undirectedEdgeCount() {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(
+                new String[]{"a", "b", "c"}, false);
+        builder.addEdge(0, 1, 1);
+        builder.addEdge(2, 1, 1);
+        builder.addEdge(0, 2, 1);
+        builder.addEdge(1, 0, 1);
+        builder.addEdge(2, 2, 1);
+        CompressedGraph graph = builder.build();
+        // a triangle and a loop, the edge added twice is stored once
+        assertEquals(4, graph.edgeCount());
+        assertEquals(1, graph.loopCount());
+        assertArrayEquals(new int[]{0, 1, 2}, outNeighbours(graph, 2));
+        assertEquals("c", graph.label(2));
+    }
+
+    @Test
+    public void symmetricDirectedGraph() {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(3, true);
+        builder.addEdge(0, 1, 2);
+        builder.addEdge(1, 0, 2);
+        builder.addEdge(1, 2, 3);
+        builder.addEdge(2, 1, 3);
+        CompressedGraph graph = builder.build();
+        assertTrue(graph.isSymmetric());
+        CompressedGraph undirected = graph.asUndirected();
+        assertFalse(undirected.isDirected());
+        assertEquals(2, undirected.edgeCount());
+        assertArrayEquals(new int[]{0, 2}, outNeighbours(undirected, 1));
+    }
+
+    @Test
+    public void addedVertices() {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(false);
+        for (int v = 0; v < 40; v++) {
+            assertEquals(v, builder.addVertex("v" + v));
+            if (v > 0) {
+                builder.addEdge(v - 1, v, v);
+            }
+        }
+        CompressedGraph graph = builder.build();
+        assertEquals(40, graph.vertexCount());
+        assertEquals(39, graph.edgeCount());
+        assertEquals("v39", graph.label(39));
+        assertArrayEquals(new int[]{9, 11}, outNeighbours(graph, 10));
+    }
+}
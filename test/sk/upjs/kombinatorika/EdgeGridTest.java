@@ -0,0 +1,102 @@
+package sk.upjs.kombinatorika;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that {@link EdgeGrid} finds every edge reaching into a rectangle,
+ * compared with checking all of them.
+ *
+ * @author student
+ */
+public class EdgeGridTest {
+
+    private static final int ROUNDS = 200;
+
+    private final Random random = new Random(1);
+
+    private float[] coordinates(int n, double scale) {
+        float[] coordinates = new float[n];
+        for (int i = 0; i < n; i++) {
+            // squared so that vertices are denser near zero, as in a layout
+            double r = random.nextDouble();
+            coordinates[i] = (float) (r * r * scale - scale / 4);
+        }
+        return coordinates;
+    }
+
+    private static double min(float[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        for (float value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static double max(float[] values) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (float value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    /**
+     * Returns a random rectangle {minX, minY, maxX, maxY}, which may reach
+     * out of the layout.
+     */
+    private double[] rectangle(double minX, double minY, double span) {
+        double x1 = minX + (random.nextDouble() * 1.4 - 0.2) * span;
+        double y1 = minY + (random.nextDouble() * 1.4 - 0.2) * span;
+        double size = random.nextDouble() * random.nextDouble() * span;
+        return new double[]{x1, y1, x1 + size, y1 + size * random.nextDouble()};
+    }
+
+    @Test
+    public void edgesReachingRectangle() {
+        for (int m : new int[]{1, 10, 3000, 40000}) {
+            int n = Math.max(2, m / 3);
+            float[] x = coordinates(n, 100);
+            float[] y = coordinates(n, 100);
+            int[] source = new int[m];
+            int[] target = new int[m];
+            for (int e = 0; e < m; e++) {
+                source[e] = random.nextInt(n);
+                // mostly short edges, some across the whole layout
+                target[e] = random.nextInt(10) == 0 ? random.nextInt(n)
+                        : Math.min(n - 1, source[e] + random.nextInt(3));
+            }
+            double minX = min(x), minY = min(y);
+            double span = Math.max(max(x) - minX, max(y) - minY);
+            EdgeGrid edges = new EdgeGrid(x, y, source, target, minX, minY, span);
+            for (int round = 0; round < ROUNDS; round++) {
+                double[] r = rectangle(minX, minY, span);
+                int[] found = new int[m];
+                for (int k = 0; k < edges.classCount(); k++) {
+                    double reach = edges.reach(k);
+                    int toColumn = edges.column(k, r[2] + reach);
+                    int toRow = edges.row(k, r[3] + reach);
+                    for (int row = edges.row(k, r[1] - reach); row <= toRow; row++) {
+                        for (int p = edges.cellStart(k, edges.column(k, r[0] - reach), row);
+                                p < edges.cellEnd(k, toColumn, row); p++) {
+                            found[edges.item(p)]++;
+                        }
+                    }
+                }
+                for (int e = 0; e < m; e++) {
+                    assertTrue(found[e] <= 1);
+                    // an edge reaches into the rectangle only if its bounding
+                    // box does
+                    float x1 = x[source[e]], y1 = y[source[e]];
+                    float x2 = x[target[e]], y2 = y[target[e]];
+                    if (Math.max(x1, x2) >= r[0] && Math.min(x1, x2) <= r[2]
+                            && Math.max(y1, y2) >= r[1] && Math.min(y1, y2) <= r[3]) {
+                        assertEquals(1, found[e]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package sk.upjs.kombinatorika;
+
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link GraphQueries} on small graphs with known answers.
+ *
+ * @author student
+ */
+public class GraphQueriesTest {
+
+    private static IndexedGraph graph(boolean directed, String[] labels,
+            int[][] edges, double[] weights) {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(labels,
+                directed);
+        for (int e = 0; e < edges.length; e++) {
+            builder.addEdge(edges[e][0], edges[e][1], weights[e]);
+        }
+        return new IndexedGraph(builder.build());
+    }
+
+    @Test
+    public void loopsAreNotMatched() {
+        // the loop at b is heavier than the only real edge, the loop at c is
+        // at a vertex without any other edge
+        IndexedGraph graph = graph(true, new String[]{"a", "b", "c"},
+                new int[][]{{0, 1}, {1, 1}, {2, 2}}, new double[]{7, 9, 5});
+        String matching = GraphQueries.maxWeightMatching(graph);
+        assertTrue(matching, matching.contains("Váha matchingu: 7.0\n"));
+        assertTrue(matching, matching.endsWith("Hrany matchingu: a-b: 7.0, "));
+    }
+
+    @Test
+    public void undirectedLoopsAreNotMatched() {
+        IndexedGraph graph = graph(false, new String[]{"a", "b", "c"},
+                new int[][]{{0, 1}, {1, 1}, {2, 2}}, new double[]{7, 9, 5});
+        String matching = GraphQueries.maxWeightMatching(graph);
+        assertTrue(matching, matching.contains("Váha matchingu: 7.0\n"));
+    }
+}
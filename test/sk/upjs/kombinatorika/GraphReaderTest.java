@@ -0,0 +1,162 @@
+package sk.upjs.kombinatorika;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import sk.upjs.paz.Edge;
+import sk.upjs.paz.Graph;
+import sk.upjs.paz.Vertex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that {@link GraphReader#readCompressedGraphFromFile} reads files as
+ * {@link GraphReader#readGraphFromFile} does.
+ *
+ * @author student
+ */
+public class GraphReaderTest {
+
+    private static File write(String content) throws IOException {
+        File file = File.createTempFile("graph", ".txt");
+        file.deleteOnExit();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+                "UTF-8")) {
+            writer.write(content);
+        }
+        return file;
+    }
+
+    private static String edge(String source, String target, double weight,
+            boolean directed) {
+        if (!directed && source.compareTo(target) > 0) {
+            return target + "-" + source + ": " + weight;
+        }
+        return source + (directed ? "->" : "-") + target + ": " + weight;
+    }
+
+    /**
+     * Returns the labels of vertices and the edges of the graph, both sorted.
+     */
+    private static String describe(Graph graph) {
+        List<String> vertices = new ArrayList<>();
+        for (Vertex vertex : graph.getVertices()) {
+            vertices.add(vertex.getLabel());
+        }
+        List<String> edges = new ArrayList<>();
+        for (Edge e : graph.getEdges()) {
+            edges.add(edge(e.getSource().getLabel(), e.getTarget().getLabel(),
+                    e.getWeight(), graph.isDirected()));
+        }
+        Collections.sort(vertices);
+        Collections.sort(edges);
+        return vertices + " " + edges;
+    }
+
+    private static String describe(CompressedGraph graph) {
+        List<String> vertices = new ArrayList<>();
+        List<String> edges = new ArrayList<>();
+        CompressedGraph.Cursor cursor = graph.cursor();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            vertices.add(graph.label(v));
+            cursor.moveToOut(v);
+            while (cursor.hasNext()) {
+                int w = cursor.next();
+                if (graph.isDirected() || v <= w) {
+                    edges.add(edge(graph.label(v), graph.label(w),
+                            cursor.weight(), graph.isDirected()));
+                }
+            }
+        }
+        Collections.sort(vertices);
+        Collections.sort(edges);
+        return vertices + " " + edges;
+    }
+
+    /**
+     * Reads the file by both readers and checks that they give the same
+     * graph.
+     *
+     * @return description of the graph
+     */
+    private static String readBoth(String content) throws IOException {
+        String filename = write(content).getPath();
+        GraphReader reader = new GraphReader();
+        Graph graph = reader.readGraphFromFile(filename);
+        CompressedGraph compressed = reader.readCompressedGraphFromFile(filename);
+        assertEquals(graph.isDirected(), compressed.isDirected());
+        assertEquals(graph.getEdges().size(), compressed.edgeCount());
+        assertEquals(describe(graph), describe(compressed));
+        return describe(compressed);
+    }
+
+    @Test
+    public void lastDuplicateWins() throws IOException {
+        assertEquals("[a, b] [a->b: 7.0]", readBoth("a b : 5\na b : 7\n"));
+    }
+
+    @Test
+    public void lastDuplicateWinsWithDictionary() throws IOException {
+        // 7 is the first weight of the graph, so it has the smallest code
+        assertEquals("[a, b, c, d] [a->b: 5.0, c->d: 7.0]",
+                readBoth("a b : 7\nc d : 7\na b : 5\n"));
+    }
+
+    @Test
+    public void lastDuplicateWinsWithStoredWeights() throws IOException {
+        StringBuilder content = new StringBuilder();
+        // more distinct weights than the dictionary holds
+        for (int i = 0; i < 300; i++) {
+            for (int j = 0; j < 300; j++) {
+                content.append('u').append(i).append(" v").append(j)
+                        .append(" : ").append(300 * i + j + 0.5).append('\n');
+            }
+        }
+        content.append("u0 v0 : 3.25\n");
+        String graph = readBoth(content.toString());
+        assertTrue(graph.contains("u0->v0: 3.25,"));
+    }
+
+    @Test
+    public void duplicateWithoutWeightKeepsWeight() throws IOException {
+        assertEquals("[a, b] [a->b: 5.0]", readBoth("a b : 5\na b\n"));
+        assertEquals("[a, b] [a->b: 5.0]", readBoth("a b : 5\na b : x=1\n"));
+        assertEquals("[a, b] [a->b: 1.0]", readBoth("a b\na b : x=1\n"));
+    }
+
+    @Test
+    public void duplicatesOfUndirectedEdge() throws IOException {
+        assertEquals("[a, b] [a-b: 7.0]",
+                readBoth("a b : 5\nb a : 5\nb a : 7\na b : 7\n"));
+        assertEquals("[a, b] [a->b: 7.0, b->a: 5.0]",
+                readBoth("a b : 5\nb a : 5\na b : 7\n"));
+    }
+
+    @Test
+    public void loopsAreRejected() throws IOException {
+        String filename = write("a b : 1\nb b : 5\n").getPath();
+        GraphReader reader = new GraphReader();
+        assertNull(reader.readGraphFromFile(filename));
+        assertNull(reader.readCompressedGraphFromFile(filename));
+    }
+
+    @Test
+    public void loopsInMatrixAreRejected() throws IOException {
+        String filename = write("0,1\n0,2\n").getPath();
+        assertNull(new GraphReader().readCompressedGraphFromFile(filename));
+    }
+
+    @Test
+    public void matrixWithoutEdgesOfAVertex() throws IOException {
+        assertEquals("[1, 3] [1-3: 2.0]", readBoth("0,0,2\n0,0,0\n2,0,0\n"));
+        assertEquals("[1, 2, 3] [1->2: 1.5, 3->1: 2.0]",
+                readBoth("0,1.5,0\n0,0,0\n2,0,0\n"));
+    }
+}
@@ -0,0 +1,110 @@
+package sk.upjs.kombinatorika;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link GraphStatistics} on graphs with known numbers of triangles.
+ *
+ * @author student
+ */
+public class GraphStatisticsTest {
+
+    private static final double DELTA = 1e-9;
+
+    private static CompressedGraph star(int leaves) {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(leaves + 1, false);
+        for (int v = 1; v <= leaves; v++) {
+            builder.addEdge(0, v, 1);
+        }
+        return builder.build();
+    }
+
+    private static CompressedGraph clique(int n, boolean directed) {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(n, directed);
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                builder.addEdge(u, v, 1);
+            }
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void starHasNoTriangles() {
+        GraphStatistics statistics = new GraphStatistics(star(1000));
+        long[] triangles = statistics.trianglesPerVertex();
+        double[] clustering = statistics.localClustering(triangles);
+        for (int v = 0; v <= 1000; v++) {
+            assertEquals(0, triangles[v]);
+            assertEquals(0, clustering[v], DELTA);
+        }
+        assertEquals(1000 * 999 / 2, statistics.wedges(), DELTA);
+    }
+
+    @Test
+    public void cliqueTriangles() {
+        int n = 30;
+        GraphStatistics statistics = new GraphStatistics(clique(n, false));
+        long[] triangles = statistics.trianglesPerVertex();
+        double[] clustering = statistics.localClustering(triangles);
+        long total = 0;
+        for (int v = 0; v < n; v++) {
+            // every pair of the other vertices closes a triangle with v
+            assertEquals((n - 1) * (n - 2) / 2, triangles[v]);
+            assertEquals(1, clustering[v], DELTA);
+            total += triangles[v];
+        }
+        assertEquals(n * (n - 1) * (n - 2) / 6, total / 3);
+    }
+
+    @Test
+    public void directionsAreIgnored() {
+        long[] triangles = new GraphStatistics(clique(10, true)).trianglesPerVertex();
+        for (int v = 0; v < 10; v++) {
+            assertEquals(9 * 8 / 2, triangles[v]);
+        }
+    }
+
+    @Test
+    public void sampledCliqueIsExact() {
+        GraphStatistics.SampledTriangles sampled = new GraphStatistics(
+                clique(20, false)).sampleTriangles(50, new Random(1));
+        assertEquals(20 * 19 * 18 / 6, sampled.triangles.value, DELTA);
+        assertEquals(0, sampled.triangles.error, DELTA);
+        assertEquals(1, sampled.globalClustering.value, DELTA);
+        assertEquals(1, sampled.averageLocalClustering.value, DELTA);
+    }
+
+    @Test
+    public void loopsDoNotCloseTriangles() {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(3, false);
+        builder.addEdge(0, 1, 1);
+        builder.addEdge(0, 2, 1);
+        builder.addEdge(1, 1, 1);
+        builder.addEdge(2, 2, 1);
+        GraphStatistics statistics = new GraphStatistics(builder.build());
+        assertEquals(0, statistics.trianglesPerVertex()[0]);
+        GraphStatistics.SampledTriangles sampled = statistics.sampleTriangles(
+                100, new Random(1));
+        assertEquals(0, sampled.triangles.value, DELTA);
+        assertEquals(0, sampled.averageLocalClustering.value, DELTA);
+    }
+
+    @Test
+    public void diameterOfPath() {
+        CompressedGraph.Builder builder = new CompressedGraph.Builder(10, false);
+        for (int v = 0; v + 1 < 10; v++) {
+            builder.addEdge(v, v + 1, 1);
+        }
+        GraphStatistics.DiameterEstimate diameter = new GraphStatistics(
+                builder.build()).estimateDiameter(4);
+        // the first sweep reaches an end vertex, from which the
+        // other end is found
+        assertEquals(9, diameter.lowerBound);
+        assertTrue(diameter.upperBound >= 9);
+        assertEquals(10, diameter.componentSize);
+    }
+}
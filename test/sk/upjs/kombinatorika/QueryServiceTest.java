@@ -0,0 +1,119 @@
+package sk.upjs.kombinatorika;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that {@link QueryService} answers invalid requests with the right
+ * HTTP status.
+ *
+ * @author student
+ */
+public class QueryServiceTest {
+
+    private QueryService service;
+
+    @Before
+    public void setUp() throws IOException {
+        File file = File.createTempFile("graph", ".txt");
+        file.deleteOnExit();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+                "UTF-8")) {
+            writer.write("a b : 2\nb c : 3\nc d : 1\n");
+        }
+        service = new QueryService();
+        assertTrue(service.load("g", file.getPath()));
+    }
+
+    /**
+     * Creates parameters of a request from pairs of names and values.
+     */
+    private static Map<String, String> parameters(String... pairs) {
+        Map<String, String> parameters = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            parameters.put(pairs[i], pairs[i + 1]);
+        }
+        return parameters;
+    }
+
+    /**
+     * Checks that the request is rejected with the given status.
+     */
+    private void assertStatus(int status, String command, String... pairs) {
+        try {
+            service.answer(command, parameters(pairs));
+            fail("request " + command + " was answered");
+        } catch (QueryService.RequestException e) {
+            assertEquals(status, e.status);
+        }
+    }
+
+    @Test
+    public void validRequests() throws Exception {
+        assertTrue(service.answer("/path", parameters("graph", "g",
+                "from", "a", "to", "d")).contains("6.0"));
+        service.answer("/info", parameters("graph", "g"));
+        service.answer("/stats", parameters("graph", "g", "sample", "2"));
+    }
+
+    @Test
+    public void missingParameter() {
+        assertStatus(400, "/info");
+        assertStatus(400, "/path", "graph", "g", "from", "a");
+        assertStatus(400, "/flow", "graph", "g", "sink", "d");
+        assertStatus(400, "/load", "name", "h");
+        assertStatus(400, "/unload");
+    }
+
+    @Test
+    public void unknownGraph() {
+        assertStatus(404, "/info", "graph", "h");
+        assertStatus(404, "/mst", "graph", "h");
+        assertStatus(404, "/stats", "graph", "h", "sample", "2");
+        assertStatus(404, "/unload", "name", "h");
+    }
+
+    @Test
+    public void unknownVertex() {
+        assertStatus(404, "/path", "graph", "g", "from", "a", "to", "x");
+        assertStatus(404, "/flow", "graph", "g", "source", "x", "sink", "d");
+    }
+
+    @Test
+    public void unknownCommand() {
+        assertStatus(404, "/color", "graph", "g");
+        assertStatus(404, "/", "graph", "g");
+    }
+
+    @Test
+    public void badSample() {
+        assertStatus(400, "/stats", "graph", "g", "sample", "0");
+        assertStatus(400, "/stats", "graph", "g", "sample", "-3");
+        assertStatus(400, "/stats", "graph", "g", "sample", "many");
+    }
+
+    @Test
+    public void badLoad() {
+        File missing = new File(System.getProperty("java.io.tmpdir"),
+                "missing-graph-" + System.nanoTime() + ".txt");
+        assertStatus(400, "/load", "name", "h", "file", missing.getPath());
+        assertStatus(404, "/info", "graph", "h");
+    }
+
+    @Test
+    public void unloadedGraph() throws Exception {
+        service.answer("/unload", parameters("name", "g"));
+        assertStatus(404, "/info", "graph", "g");
+        assertStatus(404, "/unload", "name", "g");
+    }
+}
@@ -0,0 +1,107 @@
+package sk.upjs.kombinatorika;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that {@link SpatialGrid} finds every vertex inside a rectangle,
+ * compared with checking all of them.
+ *
+ * @author student
+ */
+public class SpatialGridTest {
+
+    private static final int ROUNDS = 200;
+
+    private final Random random = new Random(1);
+
+    private float[] coordinates(int n, double scale) {
+        float[] coordinates = new float[n];
+        for (int i = 0; i < n; i++) {
+            // squared so that vertices are denser near zero, as in a layout
+            double r = random.nextDouble();
+            coordinates[i] = (float) (r * r * scale - scale / 4);
+        }
+        return coordinates;
+    }
+
+    private static double min(float[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        for (float value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static double max(float[] values) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (float value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    /**
+     * Returns a random rectangle {minX, minY, maxX, maxY}, which may reach
+     * out of the layout.
+     */
+    private double[] rectangle(double minX, double minY, double span) {
+        double x1 = minX + (random.nextDouble() * 1.4 - 0.2) * span;
+        double y1 = minY + (random.nextDouble() * 1.4 - 0.2) * span;
+        double size = random.nextDouble() * random.nextDouble() * span;
+        return new double[]{x1, y1, x1 + size, y1 + size * random.nextDouble()};
+    }
+
+    @Test
+    public void verticesInRectangle() {
+        for (int n : new int[]{1, 5, 1000, 20000}) {
+            float[] x = coordinates(n, 100);
+            float[] y = coordinates(n, 60);
+            double minX = min(x), minY = min(y), maxX = max(x), maxY = max(y);
+            SpatialGrid grid = new SpatialGrid(x, y, minX, minY, maxX, maxY);
+            double span = Math.max(maxX - minX, maxY - minY);
+            for (int round = 0; round < ROUNDS; round++) {
+                double[] r = rectangle(minX, minY, span);
+                int[] found = new int[n];
+                for (int row = grid.row(r[1]); row <= grid.row(r[3]); row++) {
+                    for (int column = grid.column(r[0]);
+                            column <= grid.column(r[2]); column++) {
+                        for (int p = grid.cellStart(column, row);
+                                p < grid.cellEnd(column, row); p++) {
+                            found[grid.item(p)]++;
+                        }
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    assertTrue(found[i] <= 1);
+                    if (x[i] >= r[0] && x[i] <= r[2] && y[i] >= r[1] && y[i] <= r[3]) {
+                        assertEquals(1, found[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void everyVertexOnce() {
+        int n = 5000;
+        float[] x = coordinates(n, 1000);
+        float[] y = coordinates(n, 1);
+        SpatialGrid grid = new SpatialGrid(x, y, min(x), min(y), max(x), max(y));
+        int[] found = new int[n];
+        for (int row = grid.row(min(y)); row <= grid.row(max(y)); row++) {
+            for (int column = grid.column(min(x)); column <= grid.column(max(x));
+                    column++) {
+                for (int p = grid.cellStart(column, row);
+                        p < grid.cellEnd(column, row); p++) {
+                    found[grid.item(p)]++;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(1, found[i]);
+        }
+    }
+}